@@ -1,8 +1,11 @@
 package com.hybrid.caching.controller;
 
+import com.hybrid.caching.model.CacheWrite;
 import com.hybrid.caching.service.CacheService;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/cache")
 public class CacheController {
@@ -23,6 +26,12 @@ public class CacheController {
         return "Cached successfully";
     }
 
+    @PostMapping("/put-batch")
+    public String putBatch(@RequestBody List<CacheWrite> writes) {
+        cacheService.putAll(writes);
+        return "Cached successfully";
+    }
+
     @GetMapping("/get")
     public Object get(@RequestParam("key") String key) {
         return cacheService.get(key);
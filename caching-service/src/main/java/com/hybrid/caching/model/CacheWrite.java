@@ -0,0 +1,7 @@
+package com.hybrid.caching.model;
+
+/**
+ * One entry of a batched cache write: store {@code value} under {@code key} for {@code ttlSeconds}.
+ */
+public record CacheWrite(String key, long ttlSeconds, Object value) {
+}
@@ -1,9 +1,15 @@
 
 package com.hybrid.caching.service;
 
+import com.hybrid.caching.model.CacheWrite;
 import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
+
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -21,6 +27,29 @@ public class CacheService {
         redisTemplate.opsForValue().set(key, value, ttlSeconds, TimeUnit.SECONDS);
     }
 
+    /**
+     * Writes all entries in one pipelined round trip to Redis.
+     */
+    public void putAll(List<CacheWrite> writes) {
+        if (writes == null || writes.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (CacheWrite write : writes) {
+                    if (write.key() != null && write.value() != null) {
+                        ops.opsForValue().set(write.key(), write.value(), Math.max(1L, write.ttlSeconds()), TimeUnit.SECONDS);
+                    }
+                }
+                return null;
+            }
+        });
+        meterRegistry.counter("cache_batch_write_count_total").increment(writes.size());
+    }
+
     public Object get(String key) {
         Object value = redisTemplate.opsForValue().get(key);
         if (value == null) {
@@ -1,13 +1,16 @@
 package com.hybrid.caching;
 
+import com.hybrid.caching.model.CacheWrite;
 import com.hybrid.caching.service.CacheService;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ValueOperations;
 
 import java.lang.reflect.Proxy;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -33,6 +36,17 @@ class CacheServiceTest {
         assertEquals("value", redisTemplate.backingStore.get("key"));
     }
 
+    @Test
+    void testPutAll() {
+        cacheService.putAll(List.of(
+                new CacheWrite("first", 60, "one"),
+                new CacheWrite("second", 60, "two")
+        ));
+        assertEquals("one", redisTemplate.backingStore.get("first"));
+        assertEquals("two", redisTemplate.backingStore.get("second"));
+        assertEquals(2.0, meterRegistry.counter("cache_batch_write_count_total").count());
+    }
+
     @Test
     void testGet() {
         redisTemplate.backingStore.put("key", "cachedValue");
@@ -64,6 +78,12 @@ class CacheServiceTest {
             return valueOps;
         }
 
+        @Override
+        public List<Object> executePipelined(SessionCallback<?> session) {
+            session.execute(this);
+            return List.of();
+        }
+
         @Override
         public Boolean delete(String key) {
             return backingStore.remove(key) != null;
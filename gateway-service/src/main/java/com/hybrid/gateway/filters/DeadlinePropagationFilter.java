@@ -0,0 +1,71 @@
+package com.hybrid.gateway.filters;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the time the client has left to downstream services as {@code X-Request-Deadline-Ms}.
+ *
+ * <p>The deadline is fixed when the request first reaches the gateway: the configured request
+ * budget, or a shorter deadline the client already sent. The filter runs after the route's
+ * {@code Retry} filter, so every retry forwards only what is left of the same deadline. Once the
+ * deadline has passed, the request is answered with 504 and is not forwarded.
+ */
+@Component
+public class DeadlinePropagationFilter implements GlobalFilter, Ordered {
+
+    public static final String DEADLINE_HEADER = "X-Request-Deadline-Ms";
+    private static final String DEADLINE_ATTRIBUTE = DeadlinePropagationFilter.class.getName() + ".deadlineNanos";
+
+    private final long requestBudgetMs;
+
+    public DeadlinePropagationFilter(@Value("${gateway.request-deadline-ms:3000}") long requestBudgetMs) {
+        this.requestBudgetMs = Math.max(1L, requestBudgetMs);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Long deadlineNanos = exchange.getAttribute(DEADLINE_ATTRIBUTE);
+        if (deadlineNanos == null) {
+            deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(initialBudgetMs(exchange));
+            exchange.getAttributes().put(DEADLINE_ATTRIBUTE, deadlineNanos);
+        }
+
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        if (remainingMs <= 0) {
+            exchange.getResponse().setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+            return exchange.getResponse().setComplete();
+        }
+
+        ServerWebExchange forwarded = exchange.mutate()
+                .request(request -> request.headers(headers -> headers.set(DEADLINE_HEADER, Long.toString(remainingMs))))
+                .build();
+        return chain.filter(forwarded);
+    }
+
+    private long initialBudgetMs(ServerWebExchange exchange) {
+        String clientDeadline = exchange.getRequest().getHeaders().getFirst(DEADLINE_HEADER);
+        if (clientDeadline == null || clientDeadline.isBlank()) {
+            return requestBudgetMs;
+        }
+        try {
+            return Math.max(0L, Math.min(requestBudgetMs, Long.parseLong(clientDeadline.trim())));
+        } catch (NumberFormatException ex) {
+            return requestBudgetMs;
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 1;
+    }
+}
@@ -1,9 +1,9 @@
 package com.hybrid.indexing.config;
 
+import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 import javax.sql.DataSource;
 
@@ -22,13 +22,30 @@ public class DatabaseConfig {
     @Value("${spring.datasource.driver-class-name:org.postgresql.Driver}")
     private String driverClassName;
 
-    @Bean
+    @Value("${spring.datasource.hikari.maximum-pool-size:8}")
+    private int maxPoolSize;
+
+    @Value("${postgres.pool.prepare-threshold:1}")
+    private int prepareThreshold;
+
+    @Value("${postgres.pool.statement-cache-size:256}")
+    private int statementCacheSize;
+
+    /**
+     * Pooled connections for the metadata and embedding upserts, with statements prepared
+     * server-side and cached per connection by the driver.
+     */
+    @Bean(destroyMethod = "close")
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("indexing-postgres");
         dataSource.setDriverClassName(driverClassName);
-        dataSource.setUrl(datasourceUrl);
+        dataSource.setJdbcUrl(datasourceUrl);
         dataSource.setUsername(datasourceUsername);
         dataSource.setPassword(datasourcePassword);
+        dataSource.setMaximumPoolSize(Math.max(1, maxPoolSize));
+        dataSource.addDataSourceProperty("prepareThreshold", prepareThreshold);
+        dataSource.addDataSourceProperty("preparedStatementCacheQueries", statementCacheSize);
         return dataSource;
     }
 }
@@ -2,6 +2,8 @@ package com.hybrid.indexing.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
@@ -9,7 +11,6 @@ import org.springframework.web.client.RestTemplate;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -32,13 +33,19 @@ public class VectorMetadataService {
     @Value("${vector.embedding.cache.enabled:true}")
     private boolean embeddingCacheEnabled;
 
-    @Value("${vector.embedding.cache.max-entries:10000}")
-    private int embeddingCacheMaxEntries;
+    // Size-bounded W-TinyLFU cache of vector literals; a bulk load of one-off documents does not
+    // evict the texts that keep being re-indexed.
+    private final Cache<String, String> embeddingCache;
 
-    private final ConcurrentHashMap<String, String> embeddingCache = new ConcurrentHashMap<>();
-
-    public VectorMetadataService(JdbcTemplate jdbcTemplate) {
+    public VectorMetadataService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${vector.embedding.cache.max-bytes:134217728}") long embeddingCacheMaxBytes
+    ) {
         this.jdbcTemplate = jdbcTemplate;
+        this.embeddingCache = Caffeine.newBuilder()
+                .maximumWeight(Math.max(1L << 20, embeddingCacheMaxBytes))
+                .weigher((String key, String literal) -> 96 + key.length() + literal.length())
+                .build();
     }
 
     public void upsertVector(String documentId, String title, String textForEmbedding) {
@@ -73,7 +80,7 @@ public class VectorMetadataService {
 
         String normalizedInput = input == null ? "" : input;
         if (embeddingCacheEnabled) {
-            String cached = embeddingCache.get(normalizedInput);
+            String cached = embeddingCache.getIfPresent(normalizedInput);
             if (cached != null) {
                 return cached;
             }
@@ -110,9 +117,6 @@ public class VectorMetadataService {
                 .collect(Collectors.joining(",", "[", "]"));
 
         if (embeddingCacheEnabled) {
-            if (embeddingCache.size() >= Math.max(100, embeddingCacheMaxEntries)) {
-                embeddingCache.clear();
-            }
             embeddingCache.put(normalizedInput, vectorLiteral);
         }
         return vectorLiteral;
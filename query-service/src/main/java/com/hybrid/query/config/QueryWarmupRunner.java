@@ -9,12 +9,47 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Startup warmup, run before the application reports itself ready: Spring Boot only switches the
+ * readiness probe to accepting traffic after every {@link ApplicationRunner} has returned.
+ *
+ * <p>The probe mode sends one configured query to each backend to open connections. The history
+ * mode replays the most frequent recent queries from {@code query_logs} through
+ * {@link QueryService}, with bounded concurrency, so that the in-memory and Redis result caches and
+ * vector-service's embedding cache are populated before the pod takes traffic. It returns once the
+ * configured share of those queries has been replayed without a backend failure or its time budget
+ * is spent, whichever is first; replays still queued at that point are dropped. Replays are not
+ * written back to {@code query_logs}.
+ */
 @Component
 public class QueryWarmupRunner implements ApplicationRunner {
     private static final Logger log = LoggerFactory.getLogger(QueryWarmupRunner.class);
 
+    private static final String TOP_QUERIES_SQL =
+            "SELECT query_text, MAX(COALESCE(top_k, 0)) AS top_k FROM query_logs "
+                    + "WHERE created_at >= NOW() - make_interval(hours => ?) AND query_text <> '' "
+                    + "GROUP BY query_text ORDER BY COUNT(*) DESC LIMIT ?";
+    // Each log row counts 2^(-age / half-life), so a query that was hot yesterday ranks below one
+    // that is hot now.
+    private static final String RECENCY_WEIGHTED_TOP_QUERIES_SQL =
+            "SELECT query_text, MAX(COALESCE(top_k, 0)) AS top_k FROM query_logs "
+                    + "WHERE created_at >= NOW() - make_interval(hours => ?) AND query_text <> '' "
+                    + "GROUP BY query_text "
+                    + "ORDER BY SUM(POWER(2, -EXTRACT(EPOCH FROM NOW() - created_at) / ?)) DESC LIMIT ?";
+
+    record LoggedQuery(String query, int topK) {
+    }
+
     private final QueryService queryService;
     private final LexicalSearchClient lexicalSearchClient;
     private final SemanticSearchClient semanticSearchClient;
@@ -23,6 +58,15 @@ public class QueryWarmupRunner implements ApplicationRunner {
     private final int warmupTopK;
     private final int warmupAttempts;
     private final long warmupDelayMs;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean historyEnabled;
+    private final int historyTopN;
+    private final int historyWindowHours;
+    private final double historyHalfLifeHours;
+    private final int historyConcurrency;
+    private final double historyCoverage;
+    private final long historyTimeBudgetMs;
+    private final long historyRetryDelayMs;
 
     public QueryWarmupRunner(
             QueryService queryService,
@@ -32,7 +76,16 @@ public class QueryWarmupRunner implements ApplicationRunner {
             @Value("${query.warmup.query:startup warmup probe}") String warmupQuery,
             @Value("${query.warmup.top-k:1}") int warmupTopK,
             @Value("${query.warmup.attempts:2}") int warmupAttempts,
-            @Value("${query.warmup.delay-ms:2000}") long warmupDelayMs
+            @Value("${query.warmup.delay-ms:2000}") long warmupDelayMs,
+            JdbcTemplate jdbcTemplate,
+            @Value("${query.warmup.history.enabled:false}") boolean historyEnabled,
+            @Value("${query.warmup.history.top-n:200}") int historyTopN,
+            @Value("${query.warmup.history.window-hours:24}") int historyWindowHours,
+            @Value("${query.warmup.history.recency-half-life-hours:0}") double historyHalfLifeHours,
+            @Value("${query.warmup.history.concurrency:4}") int historyConcurrency,
+            @Value("${query.warmup.history.coverage:0.9}") double historyCoverage,
+            @Value("${query.warmup.history.time-budget-ms:30000}") long historyTimeBudgetMs,
+            @Value("${query.warmup.history.retry-delay-ms:1000}") long historyRetryDelayMs
     ) {
         this.queryService = queryService;
         this.lexicalSearchClient = lexicalSearchClient;
@@ -42,13 +95,28 @@ public class QueryWarmupRunner implements ApplicationRunner {
         this.warmupTopK = Math.max(1, warmupTopK);
         this.warmupAttempts = Math.max(1, warmupAttempts);
         this.warmupDelayMs = Math.max(0L, warmupDelayMs);
+        this.jdbcTemplate = jdbcTemplate;
+        this.historyEnabled = historyEnabled;
+        this.historyTopN = Math.max(1, historyTopN);
+        this.historyWindowHours = Math.max(1, historyWindowHours);
+        this.historyHalfLifeHours = Math.max(0.0, historyHalfLifeHours);
+        this.historyConcurrency = Math.max(1, historyConcurrency);
+        this.historyCoverage = Math.min(1.0, Math.max(0.0, historyCoverage));
+        this.historyTimeBudgetMs = Math.max(0L, historyTimeBudgetMs);
+        this.historyRetryDelayMs = Math.max(1L, historyRetryDelayMs);
     }
 
     @Override
     public void run(ApplicationArguments args) {
-        if (!warmupEnabled) {
-            return;
+        if (warmupEnabled) {
+            runProbe();
+        }
+        if (historyEnabled && jdbcTemplate != null && !Thread.currentThread().isInterrupted()) {
+            replayHistory();
         }
+    }
+
+    private void runProbe() {
 
         QueryRequest request = new QueryRequest();
         request.setQuery(warmupQuery);
@@ -73,4 +141,121 @@ public class QueryWarmupRunner implements ApplicationRunner {
             }
         }
     }
+
+    /**
+     * Replays the logged top queries and returns whether the coverage target was reached within
+     * the time budget. A replay counts once its stages completed, whether or not they found
+     * anything: a query that matches nothing is still warm, as a negative cache entry. With Solr or
+     * vector-service down, QueryService degrades to partial results instead of failing, so replays
+     * whose status reports a stage timeout, error or rejection are not counted; they are scheduled
+     * again after {@code retry-delay-ms}, behind the queries still waiting, until the budget runs out.
+     */
+    boolean replayHistory() {
+        long start = System.nanoTime();
+        List<LoggedQuery> queries = loadTopQueries();
+        if (queries.isEmpty()) {
+            log.info("event=query_warmup_history_skipped reason=no_logged_queries");
+            return true;
+        }
+
+        long budgetDeadline = start + TimeUnit.MILLISECONDS.toNanos(historyTimeBudgetMs);
+        int required = (int) Math.ceil(queries.size() * historyCoverage);
+        CountDownLatch covered = new CountDownLatch(required);
+        AtomicInteger replayed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(historyConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "query-warmup-history");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        for (int i = 0; i < queries.size(); i++) {
+            LoggedQuery logged = queries.get(i);
+            String traceId = "startup-warmup-history-" + i;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (replay(logged, traceId)) {
+                        replayed.incrementAndGet();
+                        covered.countDown();
+                        return;
+                    }
+                    failed.incrementAndGet();
+                    long retryMs = Math.min(historyRetryDelayMs, TimeUnit.NANOSECONDS.toMillis(budgetDeadline - System.nanoTime()));
+                    if (retryMs <= 0L || executor.isShutdown()) {
+                        return;
+                    }
+                    try {
+                        // A new task rather than a sleep, so a failing query never holds a worker.
+                        executor.schedule(this, retryMs, TimeUnit.MILLISECONDS);
+                    } catch (RejectedExecutionException ex) {
+                        // Warmup finished while this replay was running.
+                    }
+                }
+            });
+        }
+
+        boolean reachedCoverage;
+        try {
+            reachedCoverage = covered.await(historyTimeBudgetMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            reachedCoverage = false;
+        }
+        // Replays already running finish in the background; the rest, and any retries, are not started.
+        executor.getQueue().clear();
+        executor.shutdown();
+        log.info(
+                "event=query_warmup_history_complete queries={} replayed={} failed_attempts={} coverage_reached={} elapsed_ms={}",
+                queries.size(),
+                replayed.get(),
+                failed.get(),
+                reachedCoverage,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+        );
+        return reachedCoverage;
+    }
+
+    /**
+     * Replays one query and returns whether its stages completed. Statuses starting with
+     * {@code PARTIAL_} mean a stage timed out, failed or was rejected, and a coalesced replay that
+     * outlived its wait has no result of its own.
+     */
+    private boolean replay(LoggedQuery logged, String traceId) {
+        try {
+            QueryRequest request = new QueryRequest();
+            request.setQuery(logged.query());
+            if (logged.topK() > 0) {
+                request.setTopK(logged.topK());
+            }
+            String status = queryService.executeWarmupSearch(request, traceId);
+            return status != null && !status.startsWith("PARTIAL_") && !"COALESCED_TIMEOUT".equals(status);
+        } catch (Exception ex) {
+            log.debug("trace_id={} event=query_warmup_history_replay_failed error=\"{}\"", traceId, ex.getMessage());
+            return false;
+        }
+    }
+
+    List<LoggedQuery> loadTopQueries() {
+        try {
+            if (historyHalfLifeHours > 0.0) {
+                return jdbcTemplate.query(
+                        RECENCY_WEIGHTED_TOP_QUERIES_SQL,
+                        (rs, rowNum) -> new LoggedQuery(rs.getString("query_text"), rs.getInt("top_k")),
+                        historyWindowHours,
+                        historyHalfLifeHours * 3600.0,
+                        historyTopN
+                );
+            }
+            return jdbcTemplate.query(
+                    TOP_QUERIES_SQL,
+                    (rs, rowNum) -> new LoggedQuery(rs.getString("query_text"), rs.getInt("top_k")),
+                    historyWindowHours,
+                    historyTopN
+            );
+        } catch (Exception ex) {
+            log.warn("event=query_warmup_history_skipped reason=query_logs_unavailable error=\"{}\"", ex.getMessage());
+            return List.of();
+        }
+    }
 }
@@ -0,0 +1,93 @@
+package com.hybrid.query.config;
+
+import com.hybrid.query.service.StageBulkhead;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streams {@code jdk.VirtualThreadPinned} JFR events into {@code virtual_thread_pinned_ms}, which
+ * covers every virtual thread (request handling, stage tasks). It also publishes
+ * {@code virtual_thread_pinned_ratio}: the pinned time of stage threads alone, recognised by their
+ * {@link StageBulkhead#THREAD_NAME_PREFIX name prefix}, over the time stage tasks spent on virtual
+ * threads ({@code virtual_thread_task_ms}), so both sides measure the same threads.
+ */
+@Component
+@ConditionalOnProperty(name = "query.execution.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration pinnedThreshold;
+    private final LongAdder stagePinnedNanos = new LongAdder();
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${query.execution.virtual-threads.pinned-threshold-ms:1}") long pinnedThresholdMs
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.pinnedThreshold = Duration.ofMillis(Math.max(0L, pinnedThresholdMs));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (Runtime.version().feature() < 21) {
+            log.warn("virtual thread mode requested on JDK {}; pinning metrics disabled", Runtime.version().feature());
+            return;
+        }
+        Timer pinned = meterRegistry.timer("virtual_thread_pinned_ms");
+        Gauge.builder("virtual_thread_pinned_ratio", this, VirtualThreadPinningMonitor::pinnedRatio)
+                .register(meterRegistry);
+
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(pinnedThreshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, event -> {
+            pinned.record(event.getDuration());
+            if (isStageThread(event)) {
+                stagePinnedNanos.add(event.getDuration().toNanos());
+            }
+        });
+        recordingStream.startAsync();
+        log.info("virtual thread pinning monitor started threshold_ms={}", pinnedThreshold.toMillis());
+    }
+
+    private static boolean isStageThread(RecordedEvent event) {
+        RecordedThread thread = event.getThread();
+        String name = thread != null ? thread.getJavaName() : null;
+        return name != null && name.startsWith(StageBulkhead.THREAD_NAME_PREFIX);
+    }
+
+    private double pinnedRatio() {
+        double virtualNanos = meterRegistry.find("virtual_thread_task_ms").timers().stream()
+                .mapToDouble(timer -> timer.totalTime(TimeUnit.NANOSECONDS))
+                .sum();
+        if (virtualNanos <= 0) {
+            return 0.0;
+        }
+        return Math.min(1.0, stagePinnedNanos.sum() / virtualNanos);
+    }
+
+    @Override
+    public void destroy() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.hybrid.query.controller;
 
-import com.hybrid.query.service.QueryService;
+import com.hybrid.query.service.FacetSnapshotCache;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,17 +10,20 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class FacetController {
 
-    private final QueryService queryService;
+    private final FacetSnapshotCache facetSnapshotCache;
 
-    public FacetController(QueryService queryService) {
-        this.queryService = queryService;
+    public FacetController(FacetSnapshotCache facetSnapshotCache) {
+        this.facetSnapshotCache = facetSnapshotCache;
     }
 
+    // Served from the in-memory snapshot as its pre-encoded JSON bytes.
     @GetMapping(value = "/facets", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<String> getFacets(
+    public ResponseEntity<byte[]> getFacets(
             @RequestParam(value = "field", required = false) String field,
             @RequestParam(value = "limit", required = false) Integer limit
     ) {
-        return ResponseEntity.ok(queryService.fetchFacets(field, limit));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(facetSnapshotCache.get(field, limit).jsonBytes());
     }
 }
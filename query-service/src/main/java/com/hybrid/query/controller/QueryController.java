@@ -1,27 +1,42 @@
 package com.hybrid.query.controller;
 
 import com.hybrid.query.model.QueryRequest;
-import com.hybrid.query.model.QueryResult;
+import com.hybrid.query.service.QueryResultEncoder;
 import com.hybrid.query.service.QueryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/search")
+@ConditionalOnProperty(name = "query.execution.reactive.enabled", havingValue = "false", matchIfMissing = true)
 @CrossOrigin(origins = "*")
 public class QueryController {
 
     @Autowired
     private QueryService queryService;
 
-    @PostMapping
-    public QueryResult search(
+    @Autowired
+    private QueryResultEncoder resultEncoder;
+
+    // Written as pre-encoded bytes: a cache hit reuses the JSON built for an earlier response.
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> search(
             @RequestBody QueryRequest request,
-            @RequestHeader(value = "X-Trace-Id", required = false) String traceId
+            @RequestHeader(value = "X-Trace-Id", required = false) String traceId,
+            @RequestHeader(value = "X-Request-Deadline-Ms", required = false) Long deadlineMs,
+            @RequestParam(value = "debug", required = false) Boolean debug
     ) {
+        if (debug != null && request != null) {
+            request.setDebug(debug);
+        }
         String effectiveTraceId = (traceId == null || traceId.isBlank()) ? UUID.randomUUID().toString() : traceId;
-        return queryService.executeHybridSearch(request, effectiveTraceId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(resultEncoder.json(queryService.executeHybridSearch(request, effectiveTraceId, deadlineMs)));
     }
 }
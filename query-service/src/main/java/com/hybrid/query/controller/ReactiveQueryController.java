@@ -0,0 +1,49 @@
+package com.hybrid.query.controller;
+
+import com.hybrid.query.model.QueryRequest;
+import com.hybrid.query.service.QueryResultEncoder;
+import com.hybrid.query.service.QueryService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Serves {@code POST /search} through the non-blocking query pipeline. The request thread is
+ * released as soon as the {@link Mono} is returned and the response is written when fusion completes.
+ * The body is the result's memoized JSON, so a cache hit is not serialized again.
+ */
+@RestController
+@RequestMapping("/search")
+@CrossOrigin(origins = "*")
+@ConditionalOnProperty(name = "query.execution.reactive.enabled", havingValue = "true")
+public class ReactiveQueryController {
+
+    private final QueryService queryService;
+    private final QueryResultEncoder resultEncoder;
+
+    public ReactiveQueryController(QueryService queryService, QueryResultEncoder resultEncoder) {
+        this.queryService = queryService;
+        this.resultEncoder = resultEncoder;
+    }
+
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> search(
+            @RequestBody QueryRequest request,
+            @RequestHeader(value = "X-Trace-Id", required = false) String traceId,
+            @RequestHeader(value = "X-Request-Deadline-Ms", required = false) Long deadlineMs,
+            @RequestParam(value = "debug", required = false) Boolean debug
+    ) {
+        if (debug != null && request != null) {
+            request.setDebug(debug);
+        }
+        String effectiveTraceId = (traceId == null || traceId.isBlank()) ? UUID.randomUUID().toString() : traceId;
+        return queryService.executeHybridSearchReactive(request, effectiveTraceId, deadlineMs)
+                .map(result -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(resultEncoder.json(result)));
+    }
+}
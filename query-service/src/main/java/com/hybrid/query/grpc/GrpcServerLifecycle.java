@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
@@ -18,22 +19,26 @@ public class GrpcServerLifecycle implements InitializingBean, DisposableBean {
 
     private final HybridQueryGrpcApi hybridQueryGrpcApi;
     private final int port;
+    private final boolean virtualThreads;
     private Server server;
 
     public GrpcServerLifecycle(
             HybridQueryGrpcApi hybridQueryGrpcApi,
-            @Value("${grpc.server.port:9093}") int port
+            @Value("${grpc.server.port:9093}") int port,
+            @Value("${query.execution.virtual-threads.enabled:false}") boolean virtualThreads
     ) {
         this.hybridQueryGrpcApi = hybridQueryGrpcApi;
         this.port = port;
+        this.virtualThreads = virtualThreads;
     }
 
     @Override
     public void afterPropertiesSet() throws IOException {
-        server = ServerBuilder.forPort(port)
-                .addService(hybridQueryGrpcApi)
-                .build()
-                .start();
+        ServerBuilder<?> builder = ServerBuilder.forPort(port).addService(hybridQueryGrpcApi.serviceDefinition());
+        if (virtualThreads) {
+            builder.executor(new VirtualThreadTaskExecutor("grpc-query-"));
+        }
+        server = builder.build().start();
         log.info("gRPC server started for query-service on port {}", port);
     }
 
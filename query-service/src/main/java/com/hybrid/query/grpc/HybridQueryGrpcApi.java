@@ -1,63 +1,129 @@
 package com.hybrid.query.grpc;
 
 import com.hybrid.query.model.QueryResult;
-import com.hybrid.query.model.RankedResult;
+import com.hybrid.query.service.FacetSnapshotCache;
+import com.hybrid.query.service.QueryResultEncoder;
 import com.hybrid.query.service.QueryService;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.stub.ServerCalls;
 import io.grpc.stub.StreamObserver;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class HybridQueryGrpcApi extends HybridQueryServiceGrpc.HybridQueryServiceImplBase {
 
     private final QueryService queryService;
+    private final QueryResultEncoder resultEncoder;
+    private final FacetSnapshotCache facetSnapshotCache;
+    private final boolean reactiveEnabled;
 
-    public HybridQueryGrpcApi(QueryService queryService) {
+    public HybridQueryGrpcApi(
+            QueryService queryService,
+            QueryResultEncoder resultEncoder,
+            FacetSnapshotCache facetSnapshotCache,
+            @Value("${query.execution.reactive.enabled:false}") boolean reactiveEnabled
+    ) {
         this.queryService = queryService;
+        this.resultEncoder = resultEncoder;
+        this.facetSnapshotCache = facetSnapshotCache;
+        this.reactiveEnabled = reactiveEnabled;
     }
 
-    @Override
-    public void hybridSearch(HybridSearchRequest request, StreamObserver<HybridSearchResponse> responseObserver) {
+    /**
+     * Service definition to register with the server. {@code HybridSearch} is bound with a
+     * pass-through response marshaller so that the protobuf bytes memoized on a cached result are
+     * written as they are, without building a {@link HybridSearchResponse} for every hit. Its wire
+     * format is unchanged for clients.
+     */
+    public ServerServiceDefinition serviceDefinition() {
+        ServerServiceDefinition generated = bindService();
+        MethodDescriptor<HybridSearchRequest, HybridSearchResponse> typedSearch = HybridQueryServiceGrpc.getHybridSearchMethod();
+        MethodDescriptor<HybridSearchRequest, byte[]> encodedSearch = typedSearch
+                .toBuilder(typedSearch.getRequestMarshaller(), EncodedMessageMarshaller.INSTANCE)
+                .build();
+
+        ServerServiceDefinition.Builder builder = ServerServiceDefinition.builder(generated.getServiceDescriptor().getName());
+        for (ServerMethodDefinition<?, ?> method : generated.getMethods()) {
+            if (!method.getMethodDescriptor().getFullMethodName().equals(typedSearch.getFullMethodName())) {
+                builder.addMethod(method);
+            }
+        }
+        builder.addMethod(encodedSearch, ServerCalls.asyncUnaryCall(this::hybridSearchEncoded));
+        return builder.build();
+    }
+
+    private void hybridSearchEncoded(HybridSearchRequest request, StreamObserver<byte[]> responseObserver) {
         com.hybrid.query.model.QueryRequest internalRequest = new com.hybrid.query.model.QueryRequest();
         internalRequest.setQuery(request.getQuery());
         if (request.getTopK() > 0) {
             internalRequest.setTopK(request.getTopK());
         }
+        internalRequest.setDebug(request.getDebug());
+        internalRequest.setFusion(request.getFusion());
 
         String traceId = "grpc-" + UUID.randomUUID();
-        QueryResult result = queryService.executeHybridSearch(internalRequest, traceId);
-        HybridSearchResponse.Builder builder = HybridSearchResponse.newBuilder()
-                .setMessage(safe(result.getMessage()))
-                .setSolrResult(safe(result.getSolrResult()))
-                .setVectorResult(safe(result.getVectorResult()));
-
-        if (result.getRankedResults() != null) {
-            for (RankedResult rankedResult : result.getRankedResults()) {
-                builder.addRankedResults(
-                        RankedResultMessage.newBuilder()
-                                .setId(safe(rankedResult.getId()))
-                                .setTitle(safe(rankedResult.getTitle()))
-                                .setScore(rankedResult.getScore())
-                                .setLexicalScore(rankedResult.getLexicalScore())
-                                .setSemanticScore(rankedResult.getSemanticScore())
-                                .build()
-                );
-            }
+        Deadline callDeadline = Context.current().getDeadline();
+        Long deadlineMs = callDeadline == null ? null : callDeadline.timeRemaining(TimeUnit.MILLISECONDS);
+        if (reactiveEnabled) {
+            // Respond from the completion callback instead of parking the gRPC executor thread.
+            queryService.executeHybridSearchReactive(internalRequest, traceId, deadlineMs).subscribe(
+                    result -> {
+                        responseObserver.onNext(resultEncoder.protobuf(result));
+                        responseObserver.onCompleted();
+                    },
+                    error -> responseObserver.onError(
+                            Status.INTERNAL.withDescription(error.getMessage()).withCause(error).asRuntimeException()
+                    )
+            );
+            return;
         }
 
-        responseObserver.onNext(builder.build());
+        QueryResult result = queryService.executeHybridSearch(internalRequest, traceId, deadlineMs);
+        responseObserver.onNext(resultEncoder.protobuf(result));
         responseObserver.onCompleted();
     }
 
     @Override
     public void facets(FacetsRequest request, StreamObserver<FacetsResponse> responseObserver) {
         Integer limit = request.getLimit() > 0 ? request.getLimit() : null;
-        String payload = queryService.fetchFacets(request.getField(), limit);
-        responseObserver.onNext(FacetsResponse.newBuilder().setFacetsJson(safe(payload)).build());
+        FacetSnapshotCache.Snapshot snapshot = facetSnapshotCache.get(request.getField(), limit);
+        responseObserver.onNext(FacetsResponse.newBuilder().setFacetsJson(safe(snapshot.json())).build());
         responseObserver.onCompleted();
     }
 
+    /**
+     * Writes an already-encoded message as is; requests are still parsed by the generated marshaller.
+     */
+    private enum EncodedMessageMarshaller implements MethodDescriptor.Marshaller<byte[]> {
+        INSTANCE;
+
+        @Override
+        public InputStream stream(byte[] value) {
+            return new ByteArrayInputStream(value);
+        }
+
+        @Override
+        public byte[] parse(InputStream stream) {
+            try {
+                return stream.readAllBytes();
+            } catch (IOException ex) {
+                throw Status.INTERNAL.withDescription("Failed to read message").withCause(ex).asRuntimeException();
+            }
+        }
+    }
+
     private static String safe(String value) {
         return value == null ? "" : value;
     }
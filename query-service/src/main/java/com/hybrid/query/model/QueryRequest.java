@@ -5,6 +5,8 @@ public class QueryRequest {
     private Integer topK;
     private String mode;
     private String filter;
+    private String fusion;
+    private Boolean debug;
 
     public String getQuery() {
         return query;
@@ -37,4 +39,20 @@ public class QueryRequest {
     public void setFilter(String filter) {
         this.filter = filter;
     }
+
+    public String getFusion() {
+        return fusion;
+    }
+
+    public void setFusion(String fusion) {
+        this.fusion = fusion;
+    }
+
+    public Boolean getDebug() {
+        return debug;
+    }
+
+    public void setDebug(Boolean debug) {
+        this.debug = debug;
+    }
 }
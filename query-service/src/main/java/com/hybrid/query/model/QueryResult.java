@@ -1,43 +1,104 @@
 package com.hybrid.query.model;
 
-import java.util.ArrayList;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import java.util.List;
+import java.util.function.Function;
 
-public class QueryResult {
-    private String message;
-    private String solrResult;
-    private String vectorResult;
-    private List<RankedResult> rankedResults = new ArrayList<>();
+/**
+ * Immutable search result. The caches, coalesced followers and the caller share one instance,
+ * so a cache hit returns the stored object without copying it.
+ */
+public final class QueryResult {
+    private final String message;
+    // Raw backend payloads are debug output: only set when the request asks for them.
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final String solrResult;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final String vectorResult;
+    private final List<RankedResult> rankedResults;
+    // Ready-to-send encodings, filled on first use. Because cache hits share this instance, a hot
+    // query is encoded once and later hits write the same bytes.
+    private transient volatile byte[] jsonBytes;
+    private transient volatile byte[] protobufBytes;
 
-    public String getMessage() {
-        return message;
+    public QueryResult(String message, List<RankedResult> rankedResults) {
+        this(message, null, null, rankedResults);
     }
 
-    public void setMessage(String message) {
+    @JsonCreator
+    public QueryResult(
+            @JsonProperty("message") String message,
+            @JsonProperty("solrResult") String solrResult,
+            @JsonProperty("vectorResult") String vectorResult,
+            @JsonProperty("rankedResults") List<RankedResult> rankedResults
+    ) {
         this.message = message;
+        this.solrResult = solrResult;
+        this.vectorResult = vectorResult;
+        this.rankedResults = rankedResults == null ? List.of() : List.copyOf(rankedResults);
     }
 
-    public String getSolrResult() {
-        return solrResult;
+    public String getMessage() {
+        return message;
     }
 
-    public void setSolrResult(String solrResult) {
-        this.solrResult = solrResult;
+    public String getSolrResult() {
+        return solrResult;
     }
 
     public String getVectorResult() {
         return vectorResult;
     }
 
-    public void setVectorResult(String vectorResult) {
-        this.vectorResult = vectorResult;
-    }
-
     public List<RankedResult> getRankedResults() {
         return rankedResults;
     }
 
-    public void setRankedResults(List<RankedResult> rankedResults) {
-        this.rankedResults = rankedResults;
+    /**
+     * JSON encoding of this result, computed by {@code encoder} on first use and then reused.
+     * The returned array is shared and must not be modified.
+     */
+    public byte[] jsonBytes(Function<QueryResult, byte[]> encoder) {
+        byte[] encoded = jsonBytes;
+        if (encoded == null) {
+            encoded = encoder.apply(this);
+            jsonBytes = encoded;
+        }
+        return encoded;
+    }
+
+    /**
+     * Protobuf {@code HybridSearchResponse} encoding of this result; memoized like {@link #jsonBytes}.
+     */
+    public byte[] protobufBytes(Function<QueryResult, byte[]> encoder) {
+        byte[] encoded = protobufBytes;
+        if (encoded == null) {
+            encoded = encoder.apply(this);
+            protobufBytes = encoded;
+        }
+        return encoded;
+    }
+
+    /**
+     * The first {@code topK} ranked results; returns this instance when there are no more than that.
+     */
+    public QueryResult truncated(int topK) {
+        if (rankedResults.size() <= topK) {
+            return this;
+        }
+        return new QueryResult(message, solrResult, vectorResult, rankedResults.subList(0, topK));
+    }
+
+    /**
+     * The same result without the debug payloads; the ranked list is shared, not copied.
+     */
+    public QueryResult withoutPayloads() {
+        if (solrResult == null && vectorResult == null) {
+            return this;
+        }
+        return new QueryResult(message, null, null, rankedResults);
     }
 }
@@ -1,16 +1,26 @@
 package com.hybrid.query.model;
 
-public class RankedResult {
-    private String id;
-    private String title;
-    private double score;
-    private double lexicalScore;
-    private double semanticScore;
-
-    public RankedResult() {
-    }
-
-    public RankedResult(String id, String title, double score, double lexicalScore, double semanticScore) {
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One fused hit. Immutable, so cached results can be handed to any number of callers as-is.
+ */
+public final class RankedResult {
+    private final String id;
+    private final String title;
+    private final double score;
+    private final double lexicalScore;
+    private final double semanticScore;
+
+    @JsonCreator
+    public RankedResult(
+            @JsonProperty("id") String id,
+            @JsonProperty("title") String title,
+            @JsonProperty("score") double score,
+            @JsonProperty("lexicalScore") double lexicalScore,
+            @JsonProperty("semanticScore") double semanticScore
+    ) {
         this.id = id;
         this.title = title;
         this.score = score;
@@ -22,39 +32,19 @@ public class RankedResult {
         return id;
     }
 
-    public void setId(String id) {
-        this.id = id;
-    }
-
     public String getTitle() {
         return title;
     }
 
-    public void setTitle(String title) {
-        this.title = title;
-    }
-
     public double getScore() {
         return score;
     }
 
-    public void setScore(double score) {
-        this.score = score;
-    }
-
     public double getLexicalScore() {
         return lexicalScore;
     }
 
-    public void setLexicalScore(double lexicalScore) {
-        this.lexicalScore = lexicalScore;
-    }
-
     public double getSemanticScore() {
         return semanticScore;
     }
-
-    public void setSemanticScore(double semanticScore) {
-        this.semanticScore = semanticScore;
-    }
 }
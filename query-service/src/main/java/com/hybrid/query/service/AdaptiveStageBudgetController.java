@@ -0,0 +1,184 @@
+package com.hybrid.query.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves the lexical and vector stage deadlines with observed backend latency.
+ *
+ * <p>Each stage records its latency into an HdrHistogram {@link Recorder}. Every refresh interval
+ * the recorded interval is rotated into a rolling window, and the stage budget becomes the
+ * configured percentile of that window times a headroom factor. The budget is clamped between the
+ * minimum stage budget and the total budget, which stays fixed as the SLO. Until a stage has
+ * {@code min-samples} in its window, or when adaptation is disabled, the configured static budgets apply.
+ */
+@Component
+public class AdaptiveStageBudgetController {
+
+    enum Stage {
+        LEXICAL("lexical"),
+        VECTOR("vector");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final double headroom;
+    private final long minSamples;
+    private final long refreshIntervalNanos;
+    private final StageWindow lexical;
+    private final StageWindow vector;
+    private final AtomicLong nextRefreshNanos = new AtomicLong();
+
+    private volatile long totalBudgetMs;
+    private volatile long minStageBudgetMs;
+
+    public AdaptiveStageBudgetController() {
+        this(null, false, 99.0, 1.2, 100, 60, 5);
+    }
+
+    @Autowired
+    public AdaptiveStageBudgetController(
+            MeterRegistry meterRegistry,
+            @Value("${query.execution.adaptive-budget.enabled:false}") boolean enabled,
+            @Value("${query.execution.adaptive-budget.percentile:99}") double percentile,
+            @Value("${query.execution.adaptive-budget.headroom:1.2}") double headroom,
+            @Value("${query.execution.adaptive-budget.min-samples:100}") long minSamples,
+            @Value("${query.execution.adaptive-budget.window-seconds:60}") long windowSeconds,
+            @Value("${query.execution.adaptive-budget.refresh-seconds:5}") long refreshSeconds
+    ) {
+        this.enabled = enabled;
+        this.percentile = Math.min(100.0, Math.max(50.0, percentile));
+        this.headroom = Math.max(1.0, headroom);
+        this.minSamples = Math.max(1L, minSamples);
+        long refresh = Math.max(1L, refreshSeconds);
+        this.refreshIntervalNanos = TimeUnit.SECONDS.toNanos(refresh);
+        int intervals = (int) Math.max(1L, Math.max(refresh, windowSeconds) / refresh);
+        this.lexical = new StageWindow(intervals);
+        this.vector = new StageWindow(intervals);
+        this.nextRefreshNanos.set(System.nanoTime() + refreshIntervalNanos);
+        if (meterRegistry != null) {
+            registerGauges(meterRegistry, Stage.LEXICAL, lexical);
+            registerGauges(meterRegistry, Stage.VECTOR, vector);
+        }
+    }
+
+    /**
+     * Sets the SLO bounds and the static budgets used until enough latency has been observed.
+     */
+    void configure(long totalBudgetMs, long minStageBudgetMs, long lexicalBudgetMs, long vectorBudgetMs) {
+        this.totalBudgetMs = totalBudgetMs;
+        this.minStageBudgetMs = minStageBudgetMs;
+        lexical.configuredBudgetMs = lexicalBudgetMs;
+        lexical.currentBudgetMs = lexicalBudgetMs;
+        vector.configuredBudgetMs = vectorBudgetMs;
+        vector.currentBudgetMs = vectorBudgetMs;
+    }
+
+    long budgetMs(Stage stage) {
+        return window(stage).currentBudgetMs;
+    }
+
+    void record(Stage stage, long durationNanos) {
+        if (!enabled) {
+            return;
+        }
+        long micros = Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(1L, TimeUnit.NANOSECONDS.toMicros(durationNanos)));
+        window(stage).recorder.recordValue(micros);
+        long now = System.nanoTime();
+        long next = nextRefreshNanos.get();
+        if (now - next >= 0 && nextRefreshNanos.compareAndSet(next, now + refreshIntervalNanos)) {
+            refresh(lexical);
+            refresh(vector);
+        }
+    }
+
+    private void refresh(StageWindow window) {
+        synchronized (window) {
+            window.rotate();
+            Histogram merged = window.merged();
+            if (merged.getTotalCount() < minSamples) {
+                window.currentBudgetMs = window.configuredBudgetMs;
+                return;
+            }
+            window.p50Ms = toMillis(merged.getValueAtPercentile(50.0));
+            window.p95Ms = toMillis(merged.getValueAtPercentile(95.0));
+            window.p99Ms = toMillis(merged.getValueAtPercentile(99.0));
+            long target = (long) Math.ceil(toMillis(merged.getValueAtPercentile(percentile)) * headroom);
+            window.currentBudgetMs = Math.max(minStageBudgetMs, Math.min(target, totalBudgetMs));
+        }
+    }
+
+    private StageWindow window(Stage stage) {
+        return stage == Stage.LEXICAL ? lexical : vector;
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static void registerGauges(MeterRegistry registry, Stage stage, StageWindow window) {
+        Gauge.builder("query_stage_budget_ms", window, w -> w.currentBudgetMs)
+                .tag("stage", stage.label)
+                .register(registry);
+        Gauge.builder("query_stage_latency_p50_ms", window, w -> w.p50Ms)
+                .tag("stage", stage.label)
+                .register(registry);
+        Gauge.builder("query_stage_latency_p95_ms", window, w -> w.p95Ms)
+                .tag("stage", stage.label)
+                .register(registry);
+        Gauge.builder("query_stage_latency_p99_ms", window, w -> w.p99Ms)
+                .tag("stage", stage.label)
+                .register(registry);
+    }
+
+    private static final class StageWindow {
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private final Histogram[] intervals;
+        private int next;
+        private Histogram recycled;
+        private volatile long configuredBudgetMs;
+        private volatile long currentBudgetMs;
+        private volatile double p50Ms;
+        private volatile double p95Ms;
+        private volatile double p99Ms;
+
+        private StageWindow(int intervalCount) {
+            this.intervals = new Histogram[intervalCount];
+        }
+
+        private void rotate() {
+            Histogram evicted = intervals[next];
+            Histogram interval = recorder.getIntervalHistogram(recycled);
+            intervals[next] = interval;
+            next = (next + 1) % intervals.length;
+            recycled = evicted;
+        }
+
+        private Histogram merged() {
+            Histogram merged = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+            for (Histogram interval : intervals) {
+                if (interval != null) {
+                    merged.add(interval);
+                }
+            }
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.hybrid.query.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Bounded, key-coalescing buffer of pending Redis cache writes. A second write to a key that is
+ * still pending replaces its value in place, so a hot key is sent once per flush with its latest
+ * value. When the buffer is full, new keys are dropped rather than blocking the caller: a missed
+ * cache write only costs a later miss.
+ */
+final class CacheWriteBehindBuffer {
+
+    enum Offer {
+        QUEUED,
+        COALESCED,
+        DROPPED
+    }
+
+    record PendingWrite(String key, long ttlSeconds, Object value) {
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<String, PendingWrite> pending = new LinkedHashMap<>();
+
+    CacheWriteBehindBuffer(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    synchronized Offer offer(PendingWrite write) {
+        if (pending.containsKey(write.key())) {
+            // Replacing a mapping keeps its insertion position, so the key does not lose its turn.
+            pending.put(write.key(), write);
+            return Offer.COALESCED;
+        }
+        if (pending.size() >= capacity) {
+            return Offer.DROPPED;
+        }
+        pending.put(write.key(), write);
+        return Offer.QUEUED;
+    }
+
+    /**
+     * Removes and returns up to {@code maxWrites} of the oldest pending writes.
+     */
+    synchronized List<PendingWrite> drain(int maxWrites) {
+        List<PendingWrite> batch = new ArrayList<>(Math.min(maxWrites, pending.size()));
+        Iterator<PendingWrite> iterator = pending.values().iterator();
+        while (iterator.hasNext() && batch.size() < maxWrites) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+        return batch;
+    }
+
+    synchronized int size() {
+        return pending.size();
+    }
+}
@@ -0,0 +1,59 @@
+package com.hybrid.query.service;
+
+import com.hybrid.query.model.QueryResult;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A cached result with the metadata needed for stale-while-revalidate.
+ *
+ * @param result         the cached result
+ * @param staleAtMillis  epoch time after which the entry is stale; it may still be served inside
+ *                       the grace window while a refresh runs
+ * @param computeMillis  how long the result took to compute, which scales early refresh
+ * @param negative       whether the computed result was small enough for the negative cache;
+ *                       decided once from the full result so truncated views keep it
+ * @param refreshDue     whether this lookup should trigger a background refresh
+ */
+public record CachedQuery(
+        QueryResult result,
+        long staleAtMillis,
+        long computeMillis,
+        boolean negative,
+        boolean refreshDue
+) {
+
+    /**
+     * Stored form of a freshly computed result.
+     */
+    public static CachedQuery computed(QueryResult result, long ttlMillis, long computeMillis, boolean negative) {
+        return new CachedQuery(result, System.currentTimeMillis() + ttlMillis, computeMillis, negative, false);
+    }
+
+    /**
+     * The same entry with {@code view} as its result, e.g. a truncated copy, keeping its timing and
+     * classification.
+     */
+    public CachedQuery withResult(QueryResult view) {
+        return new CachedQuery(view, staleAtMillis, computeMillis, negative, refreshDue);
+    }
+
+    /**
+     * The entry as seen by a lookup at {@code nowMillis}: stale entries are due for refresh, and
+     * fresh ones are due with probability rising towards expiry (XFetch: refresh when
+     * {@code now - computeMillis * beta * ln(random) >= staleAt}). Expensive results are refreshed
+     * earlier, and concurrent readers rarely pick the same moment.
+     */
+    CachedQuery lookedUpAt(long nowMillis, double beta) {
+        boolean due = nowMillis >= staleAtMillis;
+        if (!due && beta > 0.0 && computeMillis > 0L) {
+            double random = ThreadLocalRandom.current().nextDouble();
+            due = nowMillis - computeMillis * beta * Math.log(random) >= staleAtMillis;
+        }
+        return due == refreshDue ? this : new CachedQuery(result, staleAtMillis, computeMillis, negative, due);
+    }
+
+    boolean isStale(long nowMillis) {
+        return nowMillis >= staleAtMillis;
+    }
+}
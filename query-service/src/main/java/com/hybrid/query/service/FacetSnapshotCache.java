@@ -0,0 +1,180 @@
+package com.hybrid.query.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Match-all facet counts, served from memory. Counts over the whole corpus only change when the
+ * index commits, so each {@code (field, limit)} snapshot is loaded from Solr once and then
+ * refreshed in the background: a scheduled check reloads every snapshot when Solr reports a new
+ * index version, or when the snapshots reach their maximum age if the version is unknown.
+ *
+ * <p>Loads are single-flight: concurrent requests for a missing snapshot wait on one Solr query,
+ * and a refresh of a key that is already being refreshed is not repeated. A failed refresh keeps
+ * the previous snapshot.
+ */
+@Service
+public class FacetSnapshotCache implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(FacetSnapshotCache.class);
+    private static final String CACHE_NAME = "facet_snapshot";
+    private static final String DEFAULT_FIELD = "category";
+    private static final int DEFAULT_LIMIT = 20;
+    private static final Snapshot EMPTY = Snapshot.of("{\"facet_counts\":{\"facet_fields\":{}}}");
+
+    /**
+     * Facet response with its JSON encoding computed once.
+     */
+    public record Snapshot(String json, byte[] jsonBytes) {
+        static Snapshot of(String json) {
+            return new Snapshot(json, json.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private record FacetKey(String field, int limit) {
+    }
+
+    private final LexicalSearchClient lexicalSearchClient;
+    private final boolean enabled;
+    private final long maxAgeMillis;
+    private final LoadingCache<FacetKey, Snapshot> snapshots;
+    private final ScheduledExecutorService refresher;
+    private final Counter loadCounter;
+    private final Counter loadFailedCounter;
+    private volatile String indexVersion;
+    private volatile long refreshedAtMillis = System.currentTimeMillis();
+
+    public FacetSnapshotCache(LexicalSearchClient lexicalSearchClient) {
+        this(lexicalSearchClient, false, 5000L, 60000L, 256, null);
+    }
+
+    @Autowired
+    public FacetSnapshotCache(
+            LexicalSearchClient lexicalSearchClient,
+            @Value("${query.facets.cache.enabled:true}") boolean enabled,
+            @Value("${query.facets.cache.check-interval-ms:5000}") long checkIntervalMs,
+            @Value("${query.facets.cache.max-age-ms:60000}") long maxAgeMillis,
+            @Value("${query.facets.cache.max-entries:256}") int maxEntries,
+            MeterRegistry meterRegistry
+    ) {
+        this.lexicalSearchClient = lexicalSearchClient;
+        this.enabled = enabled;
+        this.maxAgeMillis = Math.max(1000L, maxAgeMillis);
+        if (meterRegistry != null) {
+            this.loadCounter = meterRegistry.counter("facet_snapshot_load_total");
+            this.loadFailedCounter = meterRegistry.counter("facet_snapshot_load_failed_total");
+        } else {
+            this.loadCounter = null;
+            this.loadFailedCounter = null;
+        }
+        if (!enabled) {
+            this.snapshots = null;
+            this.refresher = null;
+            return;
+        }
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "facet-snapshot-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maxEntries))
+                .executor(refresher)
+                .recordStats()
+                .build(this::load);
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, snapshots, CACHE_NAME);
+        }
+        long intervalMs = Math.max(100L, checkIntervalMs);
+        refresher.scheduleWithFixedDelay(this::refreshIfChanged, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public Snapshot get(String field, Integer limit) {
+        FacetKey key = new FacetKey(
+                (field == null || field.isBlank()) ? DEFAULT_FIELD : field,
+                (limit == null || limit <= 0) ? DEFAULT_LIMIT : limit
+        );
+        try {
+            return enabled ? snapshots.get(key) : load(key);
+        } catch (RuntimeException ex) {
+            return EMPTY;
+        }
+    }
+
+    /**
+     * Loads a snapshot, throwing on failure so that the cache neither stores nor replaces with the
+     * empty fallback.
+     */
+    private Snapshot load(FacetKey key) {
+        String json;
+        try {
+            json = lexicalSearchClient.facets(key.field(), key.limit());
+        } catch (RuntimeException ex) {
+            increment(loadFailedCounter);
+            throw ex;
+        }
+        if (json == null) {
+            increment(loadFailedCounter);
+            throw new IllegalStateException("empty facet response for field " + key.field());
+        }
+        increment(loadCounter);
+        return Snapshot.of(json);
+    }
+
+    private void refreshIfChanged() {
+        try {
+            String version = currentIndexVersion();
+            long now = System.currentTimeMillis();
+            boolean committed = version != null && !version.equals(indexVersion);
+            boolean aged = version == null && now - refreshedAtMillis >= maxAgeMillis;
+            if (!committed && !aged) {
+                return;
+            }
+            indexVersion = version;
+            refreshedAtMillis = now;
+            List<FacetKey> keys = List.copyOf(snapshots.asMap().keySet());
+            keys.forEach(snapshots::refresh);
+            log.debug("event=facet_snapshot_refresh snapshots={} index_version={}", keys.size(), version);
+        } catch (RuntimeException ex) {
+            // Keep the scheduled check alive; the next tick tries again.
+            log.warn("event=facet_snapshot_refresh_failed error=\"{}\"", ex.getMessage());
+        }
+    }
+
+    private String currentIndexVersion() {
+        try {
+            return lexicalSearchClient.indexVersion();
+        } catch (RuntimeException ex) {
+            // Treated as unknown, so the snapshots still refresh by age while Solr is unreachable.
+            return null;
+        }
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.hybrid.query.service;
+
+import com.hybrid.query.model.RankedResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Allocation-light fusion of lexical and semantic hits under a {@link FusionStrategy}.
+ *
+ * <p>Candidate ids are interned into dense int slots through an open-addressing table, per-side
+ * scores live in parallel {@code double[]} arrays, and the top-K is selected with a bounded heap,
+ * so only the winners are materialised as {@link RankedResult}. Ties keep first-seen order
+ * (lexical hits before semantic hits).
+ */
+final class FusionKernel {
+
+    private static final byte IN_LEXICAL = 1;
+    private static final byte IN_SEMANTIC = 2;
+
+    enum RankBy {
+        FUSED,
+        LEXICAL,
+        SEMANTIC
+    }
+
+    private FusionKernel() {
+    }
+
+    /**
+     * Normalises each side and fuses with {@code strategy}, then returns the best {@code topK}
+     * candidates ordered by {@code rankBy}. LEXICAL and SEMANTIC ordering fall back to the fused
+     * score when no candidate has a positive score on that side.
+     */
+    static List<RankedResult> fuse(
+            RetrievalHits lexical,
+            RetrievalHits semantic,
+            FusionStrategy strategy,
+            double lexicalWeight,
+            double semanticWeight,
+            RankBy rankBy,
+            int topK
+    ) {
+        int capacity = lexical.size() + semantic.size();
+        if (capacity == 0 || topK <= 0) {
+            return new ArrayList<>();
+        }
+
+        Candidates candidates = new Candidates(capacity);
+        FusionStrategy.SideStats lexicalStats = FusionStrategy.SideStats.of(lexical);
+        for (int i = 0; i < lexical.size(); i++) {
+            int slot = candidates.intern(lexical.id(i), lexical.title(i));
+            candidates.lexical[slot] = strategy.normalize(lexical.score(i), lexical.rank(i), lexicalStats);
+            candidates.sides[slot] |= IN_LEXICAL;
+        }
+        FusionStrategy.SideStats semanticStats = FusionStrategy.SideStats.of(semantic);
+        for (int i = 0; i < semantic.size(); i++) {
+            int slot = candidates.intern(semantic.id(i), semantic.title(i));
+            candidates.semantic[slot] = strategy.normalize(semantic.score(i), semantic.rank(i), semanticStats);
+            candidates.sides[slot] |= IN_SEMANTIC;
+        }
+
+        int count = candidates.size;
+        double lexicalMissing = strategy.missing(lexicalStats);
+        double semanticMissing = strategy.missing(semanticStats);
+        double[] fused = new double[count];
+        boolean anyLexical = false;
+        boolean anySemantic = false;
+        for (int slot = 0; slot < count; slot++) {
+            double lexicalScore = candidates.lexical[slot];
+            double semanticScore = candidates.semantic[slot];
+            boolean inLexical = (candidates.sides[slot] & IN_LEXICAL) != 0;
+            boolean inSemantic = (candidates.sides[slot] & IN_SEMANTIC) != 0;
+            fused[slot] = strategy.combine(
+                    inLexical ? lexicalScore : lexicalMissing,
+                    inSemantic ? semanticScore : semanticMissing,
+                    inLexical,
+                    inSemantic,
+                    lexicalWeight,
+                    semanticWeight
+            );
+            anyLexical |= lexicalScore > 0;
+            anySemantic |= semanticScore > 0;
+        }
+
+        double[] rankKey = fused;
+        if (rankBy == RankBy.LEXICAL && anyLexical) {
+            rankKey = candidates.lexical;
+        } else if (rankBy == RankBy.SEMANTIC && anySemantic) {
+            rankKey = candidates.semantic;
+        }
+
+        int[] winners = selectTopK(rankKey, count, topK);
+        List<RankedResult> ranked = new ArrayList<>(winners.length);
+        for (int slot : winners) {
+            ranked.add(new RankedResult(
+                    candidates.ids[slot],
+                    candidates.titles[slot],
+                    fused[slot],
+                    candidates.lexical[slot],
+                    candidates.semantic[slot]
+            ));
+        }
+        return ranked;
+    }
+
+    /**
+     * Returns the slots of the {@code k} best keys, best first. The heap root is the worst of the
+     * current winners, so each remaining candidate costs one comparison unless it displaces it.
+     */
+    static int[] selectTopK(double[] key, int count, int k) {
+        int limit = Math.min(k, count);
+        int[] heap = new int[limit];
+        int heapSize = 0;
+        for (int slot = 0; slot < count; slot++) {
+            if (heapSize < limit) {
+                heap[heapSize] = slot;
+                siftUp(heap, heapSize, key);
+                heapSize++;
+            } else if (limit > 0 && better(slot, heap[0], key)) {
+                heap[0] = slot;
+                siftDown(heap, 0, heapSize, key);
+            }
+        }
+        int[] ordered = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            ordered[i] = heap[0];
+            heapSize--;
+            heap[0] = heap[heapSize];
+            siftDown(heap, 0, heapSize, key);
+        }
+        return ordered;
+    }
+
+    private static boolean better(int a, int b, double[] key) {
+        return key[a] > key[b] || (key[a] == key[b] && a < b);
+    }
+
+    private static void siftUp(int[] heap, int index, double[] key) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!better(heap[parent], slot, key)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = slot;
+    }
+
+    private static void siftDown(int[] heap, int index, int size, double[] key) {
+        if (size == 0) {
+            return;
+        }
+        int slot = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && better(heap[child], heap[right], key)) {
+                child = right;
+            }
+            if (!better(slot, heap[child], key)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = slot;
+    }
+
+    private static final class Candidates {
+        private final int[] table;
+        private final int mask;
+        private final String[] ids;
+        private final String[] titles;
+        private final double[] lexical;
+        private final double[] semantic;
+        private final byte[] sides;
+        private int size;
+
+        private Candidates(int capacity) {
+            int tableSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+            this.table = new int[tableSize];
+            this.mask = tableSize - 1;
+            this.ids = new String[capacity];
+            this.titles = new String[capacity];
+            this.lexical = new double[capacity];
+            this.semantic = new double[capacity];
+            this.sides = new byte[capacity];
+        }
+
+        /**
+         * Returns the slot for {@code id}, creating it on first sight. The first non-blank title wins.
+         */
+        private int intern(String id, String title) {
+            int hash = id.hashCode();
+            int index = (hash ^ (hash >>> 16)) & mask;
+            while (true) {
+                int entry = table[index];
+                if (entry == 0) {
+                    int slot = size++;
+                    ids[slot] = id;
+                    titles[slot] = title == null ? "" : title;
+                    table[index] = slot + 1;
+                    return slot;
+                }
+                int slot = entry - 1;
+                if (ids[slot].equals(id)) {
+                    if (titles[slot].isBlank() && title != null) {
+                        titles[slot] = title;
+                    }
+                    return slot;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+    }
+}
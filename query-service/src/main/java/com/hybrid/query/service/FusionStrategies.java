@@ -0,0 +1,166 @@
+package com.hybrid.query.service;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Built-in {@link FusionStrategy} implementations, selectable per request by name.
+ *
+ * <ul>
+ *   <li>{@code weighted} (default): scores divided by the side maximum, then weighted 0.6/0.4.</li>
+ *   <li>{@code minmax}: min-max normalised scores, weighted.</li>
+ *   <li>{@code zscore}: standardised scores, weighted. A side a candidate is missing from counts
+ *   as that side's lowest z-score, not as its mean.</li>
+ *   <li>{@code rrf}: reciprocal rank fusion, {@code 1 / (60 + rank)} summed over both sides; raw scores are ignored.</li>
+ *   <li>{@code combsum}: sum of min-max normalised scores.</li>
+ *   <li>{@code combmnz}: CombSUM multiplied by the number of sides that returned the candidate.</li>
+ * </ul>
+ */
+public final class FusionStrategies {
+
+    public static final String WEIGHTED = "weighted";
+    public static final String MIN_MAX = "minmax";
+    public static final String Z_SCORE = "zscore";
+    public static final String RRF = "rrf";
+    public static final String COMB_SUM = "combsum";
+    public static final String COMB_MNZ = "combmnz";
+
+    private static final int RRF_K = 60;
+
+    private static final FusionStrategy WEIGHTED_MAX_STRATEGY = new WeightedStrategy(WEIGHTED) {
+        @Override
+        public double normalize(double score, int rank, SideStats stats) {
+            if (stats.max() <= 0) {
+                return 0.0;
+            }
+            double normalized = score / stats.max();
+            if (normalized < 0) {
+                return 0.0;
+            }
+            return Math.min(normalized, 1.0);
+        }
+    };
+
+    private static final FusionStrategy MIN_MAX_STRATEGY = new WeightedStrategy(MIN_MAX) {
+        @Override
+        public double normalize(double score, int rank, SideStats stats) {
+            return minMax(score, stats);
+        }
+    };
+
+    private static final FusionStrategy Z_SCORE_STRATEGY = new WeightedStrategy(Z_SCORE) {
+        @Override
+        public double normalize(double score, int rank, SideStats stats) {
+            return stats.stdDev() <= 0 ? 0.0 : (score - stats.mean()) / stats.stdDev();
+        }
+
+        @Override
+        public double missing(SideStats stats) {
+            return stats.count() == 0 ? 0.0 : normalize(stats.min(), stats.count(), stats);
+        }
+    };
+
+    private static final FusionStrategy RRF_STRATEGY = new FusionStrategy() {
+        @Override
+        public String name() {
+            return RRF;
+        }
+
+        @Override
+        public double normalize(double score, int rank, SideStats stats) {
+            return 1.0 / (RRF_K + Math.max(1, rank));
+        }
+
+        @Override
+        public double combine(double lexical, double semantic, boolean inLexical, boolean inSemantic,
+                              double lexicalWeight, double semanticWeight) {
+            return lexical + semantic;
+        }
+    };
+
+    private static final FusionStrategy COMB_SUM_STRATEGY = new FusionStrategy() {
+        @Override
+        public String name() {
+            return COMB_SUM;
+        }
+
+        @Override
+        public double normalize(double score, int rank, SideStats stats) {
+            return minMax(score, stats);
+        }
+
+        @Override
+        public double combine(double lexical, double semantic, boolean inLexical, boolean inSemantic,
+                              double lexicalWeight, double semanticWeight) {
+            return lexical + semantic;
+        }
+    };
+
+    private static final FusionStrategy COMB_MNZ_STRATEGY = new FusionStrategy() {
+        @Override
+        public String name() {
+            return COMB_MNZ;
+        }
+
+        @Override
+        public double normalize(double score, int rank, SideStats stats) {
+            return minMax(score, stats);
+        }
+
+        @Override
+        public double combine(double lexical, double semantic, boolean inLexical, boolean inSemantic,
+                              double lexicalWeight, double semanticWeight) {
+            int matches = (inLexical ? 1 : 0) + (inSemantic ? 1 : 0);
+            return (lexical + semantic) * matches;
+        }
+    };
+
+    private static final Map<String, FusionStrategy> BUILT_IN = Map.of(
+            WEIGHTED, WEIGHTED_MAX_STRATEGY,
+            MIN_MAX, MIN_MAX_STRATEGY,
+            Z_SCORE, Z_SCORE_STRATEGY,
+            RRF, RRF_STRATEGY,
+            COMB_SUM, COMB_SUM_STRATEGY,
+            COMB_MNZ, COMB_MNZ_STRATEGY
+    );
+
+    private FusionStrategies() {
+    }
+
+    /**
+     * Resolves a request's fusion name; unknown or missing names fall back to {@code weighted}.
+     */
+    public static FusionStrategy resolve(String name) {
+        if (name == null || name.isBlank()) {
+            return WEIGHTED_MAX_STRATEGY;
+        }
+        return BUILT_IN.getOrDefault(name.trim().toLowerCase(Locale.ROOT), WEIGHTED_MAX_STRATEGY);
+    }
+
+    private static double minMax(double score, FusionStrategy.SideStats stats) {
+        double range = stats.max() - stats.min();
+        if (range <= 0) {
+            return 1.0;
+        }
+        return (score - stats.min()) / range;
+    }
+
+    private abstract static class WeightedStrategy implements FusionStrategy {
+        private final String name;
+
+        private WeightedStrategy(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public double combine(double lexical, double semantic, boolean inLexical, boolean inSemantic,
+                              double lexicalWeight, double semanticWeight) {
+            return (lexicalWeight * lexical) + (semanticWeight * semantic);
+        }
+    }
+}
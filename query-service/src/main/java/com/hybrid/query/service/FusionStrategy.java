@@ -0,0 +1,70 @@
+package com.hybrid.query.service;
+
+/**
+ * Scoring rule used by {@link FusionKernel} to turn per-side retrieval scores into one fused score.
+ *
+ * <p>The kernel calls {@link #normalize} once per hit and {@link #combine} once per candidate, with
+ * no per-candidate allocation, so implementations should be stateless and keep to arithmetic.
+ * Built-in strategies are listed in {@link FusionStrategies}.
+ */
+public interface FusionStrategy {
+
+    /**
+     * Name a request uses to select this strategy; also part of the result cache key.
+     */
+    String name();
+
+    /**
+     * Per-side contribution of one hit. {@code rank} is the 1-based position in the upstream response.
+     */
+    double normalize(double score, int rank, SideStats stats);
+
+    /**
+     * Contribution of a side the candidate did not appear in. Defaults to {@code 0.0}, the floor of
+     * every non-negative normalisation.
+     */
+    default double missing(SideStats stats) {
+        return 0.0;
+    }
+
+    /**
+     * Fused score of one candidate. A side the candidate did not appear in contributes
+     * {@link #missing} for that side.
+     */
+    double combine(
+            double lexical,
+            double semantic,
+            boolean inLexical,
+            boolean inSemantic,
+            double lexicalWeight,
+            double semanticWeight
+    );
+
+    /**
+     * Score distribution of one side, gathered in a single pass before normalisation.
+     */
+    record SideStats(int count, double min, double max, double mean, double stdDev) {
+
+        static final SideStats EMPTY = new SideStats(0, 0.0, 1.0, 0.0, 0.0);
+
+        static SideStats of(RetrievalHits hits) {
+            int count = hits.size();
+            if (count == 0) {
+                return EMPTY;
+            }
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            double mean = 0.0;
+            double squares = 0.0;
+            for (int i = 0; i < count; i++) {
+                double score = hits.score(i);
+                min = Math.min(min, score);
+                max = Math.max(max, score);
+                double delta = score - mean;
+                mean += delta / (i + 1);
+                squares += delta * (score - mean);
+            }
+            return new SideStats(count, min, max, mean, Math.sqrt(squares / count));
+        }
+    }
+}
@@ -1,61 +1,270 @@
 package com.hybrid.query.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
 import com.hybrid.query.model.QueryResult;
+import com.hybrid.query.model.RankedResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * In-memory result cache. Caffeine bounds it by estimated size in bytes and evicts with
+ * W-TinyLFU: a new key is admitted only if it is requested more often than the entry it would
+ * replace, so a burst of one-off queries cannot push out the hot set. Expired entries are removed
+ * in the background rather than on the next read.
+ *
+ * <p>With stale-while-revalidate enabled, an entry is kept for a grace window past its TTL. Lookups
+ * in that window still return it, marked {@link CachedQuery#refreshDue()}, and entries close to
+ * expiry are marked due early with XFetch probability, so the caller refreshes a hot key in the
+ * background before it ever expires.
+ *
+ * <p>Results with no more than {@code query.cache.negative.max-results} hits (zero by default:
+ * typos, bot junk) go to a separate negative cache with its own short TTL and byte budget, so that
+ * they cannot evict hot positive entries and a newly indexed match shows up quickly. Negative
+ * entries are not refreshed in the background; they simply expire.
+ */
 @Service
 public class HybridQueryCacheService {
 
+    private static final String CACHE_NAME = "query_result";
+    private static final String NEGATIVE_CACHE_NAME = "query_result_negative";
+    private static final long MIN_MAX_BYTES = 1L << 20;
+
     private final boolean enabled;
     private final long ttlMillis;
-    private final int maxEntries;
-    private final ConcurrentHashMap<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final boolean swrEnabled;
+    private final double earlyRefreshBeta;
+    private final Cache<String, CachedQuery> cache;
+    private final boolean negativeEnabled;
+    private final long negativeTtlMillis;
+    private final int negativeMaxResults;
+    private final Cache<String, CachedQuery> negativeCache;
+    private final Counter negativeHitCounter;
+
+    public HybridQueryCacheService(boolean enabled, long ttlSeconds, long maxBytes) {
+        this(enabled, ttlSeconds, maxBytes, false, 0L, 0.0, null);
+    }
 
+    public HybridQueryCacheService(
+            boolean enabled,
+            long ttlSeconds,
+            long maxBytes,
+            boolean swrEnabled,
+            long graceSeconds,
+            double earlyRefreshBeta,
+            MeterRegistry meterRegistry
+    ) {
+        this(enabled, ttlSeconds, maxBytes, swrEnabled, graceSeconds, earlyRefreshBeta, true, 15L, 8L << 20, 0, meterRegistry);
+    }
+
+    @Autowired
     public HybridQueryCacheService(
             @Value("${query.cache.enabled:true}") boolean enabled,
             @Value("${query.cache.ttl-seconds:120}") long ttlSeconds,
-            @Value("${query.cache.max-entries:5000}") int maxEntries
+            @Value("${query.cache.max-bytes:67108864}") long maxBytes,
+            @Value("${query.cache.swr.enabled:true}") boolean swrEnabled,
+            @Value("${query.cache.swr.grace-seconds:30}") long graceSeconds,
+            @Value("${query.cache.swr.beta:1.0}") double earlyRefreshBeta,
+            @Value("${query.cache.negative.enabled:true}") boolean negativeEnabled,
+            @Value("${query.cache.negative.ttl-seconds:15}") long negativeTtlSeconds,
+            @Value("${query.cache.negative.max-bytes:8388608}") long negativeMaxBytes,
+            @Value("${query.cache.negative.max-results:0}") int negativeMaxResults,
+            MeterRegistry meterRegistry
     ) {
         this.enabled = enabled;
         this.ttlMillis = Math.max(1L, ttlSeconds) * 1000L;
-        this.maxEntries = Math.max(100, maxEntries);
+        this.swrEnabled = swrEnabled;
+        this.earlyRefreshBeta = swrEnabled ? Math.max(0.0, earlyRefreshBeta) : 0.0;
+        long graceMillis = swrEnabled ? Math.max(0L, graceSeconds) * 1000L : 0L;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(Math.max(MIN_MAX_BYTES, maxBytes))
+                .weigher((String key, CachedQuery value) -> weigh(key, value.result()))
+                .expireAfter(retainUntilGraceEnds(graceMillis))
+                .scheduler(Scheduler.systemScheduler())
+                .recordStats()
+                .build();
+        this.negativeEnabled = negativeEnabled;
+        this.negativeTtlMillis = Math.max(1L, negativeTtlSeconds) * 1000L;
+        this.negativeMaxResults = Math.max(0, negativeMaxResults);
+        this.negativeCache = Caffeine.newBuilder()
+                .maximumWeight(Math.max(MIN_MAX_BYTES, negativeMaxBytes))
+                .weigher((String key, CachedQuery value) -> weigh(key, value.result()))
+                .expireAfter(retainUntilGraceEnds(0L))
+                .scheduler(Scheduler.systemScheduler())
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+            CaffeineCacheMetrics.monitor(meterRegistry, negativeCache, NEGATIVE_CACHE_NAME);
+            Gauge.builder("cache_weight_bytes", cache, HybridQueryCacheService::weightedSize)
+                    .tag("cache", CACHE_NAME)
+                    .register(meterRegistry);
+            Gauge.builder("cache_weight_bytes", negativeCache, HybridQueryCacheService::weightedSize)
+                    .tag("cache", NEGATIVE_CACHE_NAME)
+                    .register(meterRegistry);
+            this.negativeHitCounter = meterRegistry.counter("query_cache_negative_hit_total", "layer", "inmemory");
+        } else {
+            this.negativeHitCounter = null;
+        }
     }
 
-    public QueryResult get(String query, int topK, String mode, String filter) {
+    public CachedQuery get(String query, int topK, String mode, String filter, String fusion) {
         if (!enabled) {
             return null;
         }
-        CacheEntry entry = cache.get(key(query, topK, mode, filter));
+        String key = key(query, topK, mode, filter, fusion);
+        CachedQuery entry = cache.getIfPresent(key);
         if (entry == null) {
+            return getNegative(key);
+        }
+        long now = System.currentTimeMillis();
+        if (!swrEnabled && entry.isStale(now)) {
             return null;
         }
-        if (entry.expiresAtMillis <= System.currentTimeMillis()) {
-            cache.remove(key(query, topK, mode, filter));
+        return entry.lookedUpAt(now, earlyRefreshBeta);
+    }
+
+    private CachedQuery getNegative(String key) {
+        if (!negativeEnabled) {
             return null;
         }
-        return entry.value;
+        CachedQuery entry = negativeCache.getIfPresent(key);
+        if (entry == null || entry.isStale(System.currentTimeMillis())) {
+            return null;
+        }
+        if (negativeHitCounter != null) {
+            negativeHitCounter.increment();
+        }
+        return entry;
+    }
+
+    /**
+     * Stores a result that has just been computed, taking {@code computeMillis} to do so. The result
+     * must be the full computed answer for {@code topK}, since its size decides whether it is negative.
+     */
+    public void put(String query, int topK, String mode, String filter, String fusion, QueryResult result, long computeMillis) {
+        if (result == null) {
+            return;
+        }
+        put(query, topK, mode, filter, fusion, result, computeMillis, isNegative(result));
     }
 
-    public void put(String query, int topK, String mode, String filter, QueryResult result) {
-        if (!enabled || result == null) {
+    /**
+     * Stores a view of a freshly computed result, e.g. a truncated copy, classified as its full
+     * result was.
+     */
+    public void put(
+            String query,
+            int topK,
+            String mode,
+            String filter,
+            String fusion,
+            QueryResult view,
+            long computeMillis,
+            boolean negative
+    ) {
+        if (view == null) {
             return;
         }
-        if (cache.size() >= maxEntries) {
-            cache.clear();
+        long entryTtlMillis = negative ? negativeTtlMillis : ttlMillis;
+        put(query, topK, mode, filter, fusion, CachedQuery.computed(view, entryTtlMillis, computeMillis, negative));
+    }
+
+    /**
+     * Stores an entry with the timing and classification it already has, e.g. one read from Redis or
+     * a truncated view of a deeper entry.
+     */
+    public void put(String query, int topK, String mode, String filter, String fusion, CachedQuery entry) {
+        if (!enabled || entry == null || entry.result() == null) {
+            return;
         }
-        cache.put(key(query, topK, mode, filter), new CacheEntry(result, System.currentTimeMillis() + ttlMillis));
+        CachedQuery stored = new CachedQuery(
+                entry.result(), entry.staleAtMillis(), entry.computeMillis(), entry.negative(), false
+        );
+        String key = key(query, topK, mode, filter, fusion);
+        if (entry.negative()) {
+            if (negativeEnabled) {
+                negativeCache.put(key, stored);
+            }
+            // A positive entry left under the key would be found first and hide the new answer.
+            cache.invalidate(key);
+            return;
+        }
+        cache.put(key, stored);
+        if (negativeEnabled) {
+            negativeCache.invalidate(key);
+        }
+    }
+
+    /**
+     * Whether a freshly computed, untruncated result is small enough to be held in the negative cache.
+     */
+    public boolean isNegative(QueryResult result) {
+        return negativeEnabled && result.getRankedResults().size() <= negativeMaxResults;
     }
 
-    private static String key(String query, int topK, String mode, String filter) {
+    private static String key(String query, int topK, String mode, String filter, String fusion) {
         return (query == null ? "" : query)
                 + "::" + topK
                 + "::" + mode
-                + "::" + filter;
+                + "::" + filter
+                + "::" + fusion;
+    }
+
+    /**
+     * Approximate retained size: string contents at one byte per char (compact Latin-1 strings),
+     * plus a fixed allowance per object. Response encodings memoized on a hit are not counted.
+     */
+    private static int weigh(String key, QueryResult result) {
+        long bytes = 96L + key.length()
+                + chars(result.getMessage())
+                + chars(result.getSolrResult())
+                + chars(result.getVectorResult());
+        for (RankedResult rankedResult : result.getRankedResults()) {
+            bytes += 64L + chars(rankedResult.getId()) + chars(rankedResult.getTitle());
+        }
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private static long chars(String value) {
+        return value == null ? 0L : 40L + value.length();
+    }
+
+    /**
+     * Drops each entry {@code graceMillis} after it goes stale.
+     */
+    private static Expiry<String, CachedQuery> retainUntilGraceEnds(long graceMillis) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String key, CachedQuery value, long currentTime) {
+                long retainMillis = value.staleAtMillis() + graceMillis - System.currentTimeMillis();
+                return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, retainMillis));
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, CachedQuery value, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(String key, CachedQuery value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
     }
 
-    private record CacheEntry(QueryResult value, long expiresAtMillis) {
+    private static double weightedSize(Cache<String, CachedQuery> cache) {
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
     }
 }
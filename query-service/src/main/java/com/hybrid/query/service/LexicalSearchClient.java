@@ -1,7 +1,31 @@
 package com.hybrid.query.service;
 
+import java.nio.charset.StandardCharsets;
+
 public interface LexicalSearchClient {
     String search(String query);
 
+    /**
+     * Raw response body, for callers that parse it themselves without decoding it to a String.
+     */
+    default byte[] searchBytes(String query) {
+        String body = search(query);
+        return body == null ? null : body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Typed hits consumed by fusion. The Solr body is only rendered if the hits' raw payload is requested.
+     */
+    default RetrievalHits searchHits(String query) {
+        return RetrievalSignalParser.shared().parseSolr(searchBytes(query));
+    }
+
     String facets(String field, int limit);
+
+    /**
+     * Version of the searchable index, which changes on every commit, or {@code null} if unknown.
+     */
+    default String indexVersion() {
+        return null;
+    }
 }
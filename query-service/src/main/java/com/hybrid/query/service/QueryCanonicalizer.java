@@ -0,0 +1,127 @@
+package com.hybrid.query.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Maps near-duplicate queries onto one form so that they share cache entries.
+ *
+ * <p>{@link #normalize} applies NFKC, case folding and whitespace collapsing, and {@link #cacheKey}
+ * can additionally drop stopwords and sort tokens (both off by default). These forms only key the
+ * caches: the backends still receive the caller's query, since edismax treats upper-case
+ * {@code AND}/{@code OR}/{@code NOT} as operators and the embedding model sees case. For the same
+ * reason those operators keep their case in the normalized form, so {@code a OR b} and
+ * {@code a or b} do not share an entry.
+ *
+ * <p>Result depth is bucketed as well: a request for {@code topK} is executed at the smallest
+ * configured bucket that covers it, and can be answered by truncating any cached deeper result.
+ */
+@Component
+public class QueryCanonicalizer {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+", Pattern.UNICODE_CHARACTER_CLASS);
+    private static final Set<String> OPERATORS = Set.of("AND", "OR", "NOT");
+    private static final String DEFAULT_TOP_K_BUCKETS = "10,20,50,100";
+
+    private final Set<String> stopwords;
+    private final boolean sortTokens;
+    private final int[] topKBuckets;
+
+    public QueryCanonicalizer() {
+        this("", false, DEFAULT_TOP_K_BUCKETS);
+    }
+
+    @Autowired
+    public QueryCanonicalizer(
+            @Value("${query.canonicalization.stopwords:}") String stopwords,
+            @Value("${query.canonicalization.sort-tokens:false}") boolean sortTokens,
+            @Value("${query.canonicalization.top-k-buckets:" + DEFAULT_TOP_K_BUCKETS + "}") String topKBuckets
+    ) {
+        this.stopwords = split(stopwords).stream()
+                .map(this::normalize)
+                .collect(Collectors.toUnmodifiableSet());
+        this.sortTokens = sortTokens;
+        this.topKBuckets = split(topKBuckets).stream()
+                .mapToInt(Integer::parseInt)
+                .filter(bucket -> bucket > 0)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    /**
+     * NFKC form, lower-cased except for boolean operators, with runs of whitespace collapsed to
+     * one space and the ends trimmed.
+     */
+    public String normalize(String query) {
+        if (query == null) {
+            return null;
+        }
+        String collapsed = WHITESPACE.matcher(Normalizer.normalize(query, Normalizer.Form.NFKC)).replaceAll(" ").trim();
+        if (collapsed.isEmpty()) {
+            return collapsed;
+        }
+        return Arrays.stream(collapsed.split(" "))
+                .map(token -> OPERATORS.contains(token) ? token : token.toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(" "));
+    }
+
+    /**
+     * Cache key form of an already {@link #normalize normalized} query.
+     */
+    public String cacheKey(String normalizedQuery) {
+        if (normalizedQuery == null || (stopwords.isEmpty() && !sortTokens)) {
+            return normalizedQuery;
+        }
+        List<String> tokens = new ArrayList<>(Arrays.asList(normalizedQuery.split(" ")));
+        List<String> kept = tokens.stream().filter(token -> !stopwords.contains(token)).collect(Collectors.toList());
+        if (!kept.isEmpty()) {
+            // A query made only of stopwords keeps them; otherwise it would collide with the empty query.
+            tokens = kept;
+        }
+        if (sortTokens) {
+            tokens.sort(null);
+        }
+        return String.join(" ", tokens);
+    }
+
+    /**
+     * Depth to execute and cache a {@code topK} request at: the smallest bucket that covers it,
+     * or {@code topK} itself when it is deeper than every bucket.
+     */
+    public int executionDepth(int topK) {
+        for (int bucket : topKBuckets) {
+            if (bucket >= topK) {
+                return bucket;
+            }
+        }
+        return topK;
+    }
+
+    /**
+     * Cached depths, shallowest first, whose results can be truncated to answer {@code topK}.
+     */
+    public int[] coveringDepths(int topK) {
+        return Arrays.stream(topKBuckets).filter(bucket -> bucket >= topK).toArray();
+    }
+
+    private static List<String> split(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(part -> !part.isEmpty())
+                .collect(Collectors.toList());
+    }
+}
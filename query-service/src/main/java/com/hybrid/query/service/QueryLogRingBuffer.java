@@ -0,0 +1,83 @@
+package com.hybrid.query.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer, single-consumer ring buffer (Vyukov's bounded queue). Each
+ * slot carries a sequence number that tells producers whether it is free for the current lap and
+ * tells the consumer whether it has been published, so {@link #offer} is one CAS on the tail in
+ * the common case and never blocks: a full buffer rejects the element.
+ */
+final class QueryLogRingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    QueryLogRingBuffer(int requestedCapacity) {
+        int capacity = requestedCapacity <= 2 ? 2 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds the element, or returns {@code false} at once if the buffer is full.
+     */
+    boolean offer(T element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.set(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (lag < 0) {
+                // The slot still holds an element from the previous lap: the consumer is behind.
+                return false;
+            }
+            // Another producer claimed this position first; retry with the new tail.
+        }
+    }
+
+    /**
+     * Moves up to {@code maxElements} published elements into {@code sink}. Single consumer only.
+     */
+    int drainTo(List<T> sink, int maxElements) {
+        int drained = 0;
+        long position = head.get();
+        while (drained < maxElements) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                // Empty, or a producer has claimed the slot but not published into it yet.
+                break;
+            }
+            sink.add(elements.get(index));
+            elements.set(index, null);
+            sequences.set(index, position + mask + 1);
+            position++;
+            drained++;
+        }
+        head.set(position);
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0L, tail.get() - head.get());
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
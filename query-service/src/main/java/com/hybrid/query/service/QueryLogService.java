@@ -1,32 +1,149 @@
 package com.hybrid.query.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query log pipeline. {@link #write} only publishes an entry into a bounded lock-free ring buffer,
+ * so the request thread never waits on PostgreSQL; a single background writer drains the buffer
+ * and inserts the entries with JDBC batch statements. When the writer falls behind and the buffer
+ * is full, entries are dropped and counted rather than slowing queries down.
+ */
 @Service
-public class QueryLogService {
+public class QueryLogService implements DisposableBean {
 
     private static final Logger log = LoggerFactory.getLogger(QueryLogService.class);
+    private static final String INSERT_SQL =
+            "INSERT INTO query_logs (query_text, top_k, latency_ms, status, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final long SHUTDOWN_TIMEOUT_MS = 2000L;
+
+    private record Entry(String query, int topK, double latencyMs, String status, long createdAtMillis) {
+    }
 
     private final JdbcTemplate jdbcTemplate;
+    private final QueryLogRingBuffer<Entry> buffer;
+    private final int batchSize;
+    private final ScheduledExecutorService writer;
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
 
     public QueryLogService(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, 8192, 256, 50L, null);
+    }
+
+    @Autowired
+    public QueryLogService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${query.log.capacity:8192}") int capacity,
+            @Value("${query.log.batch-size:256}") int batchSize,
+            @Value("${query.log.flush-interval-ms:50}") long flushIntervalMs,
+            MeterRegistry meterRegistry
+    ) {
         this.jdbcTemplate = jdbcTemplate;
+        this.buffer = new QueryLogRingBuffer<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "query-log-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = Math.max(1L, flushIntervalMs);
+        writer.scheduleWithFixedDelay(this::flushPending, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        if (meterRegistry != null) {
+            this.writtenCounter = meterRegistry.counter("query_log_written_total");
+            this.droppedCounter = meterRegistry.counter("query_log_dropped_total");
+            this.failedCounter = meterRegistry.counter("query_log_failed_total");
+            Gauge.builder("query_log_pending", buffer, QueryLogRingBuffer::size).register(meterRegistry);
+        } else {
+            this.writtenCounter = null;
+            this.droppedCounter = null;
+            this.failedCounter = null;
+        }
     }
 
     public void write(String query, int topK, double latencyMs, String status) {
+        Entry entry = new Entry(query == null ? "" : query, topK, latencyMs, status, System.currentTimeMillis());
+        if (!buffer.offer(entry)) {
+            increment(droppedCounter, 1);
+        }
+    }
+
+    /**
+     * Writes batches of up to {@code batch-size} entries until the buffer holds less than a full
+     * batch. A failed batch is dropped: query logs feed analytics and warmup, not correctness.
+     */
+    private void flushPending() {
         try {
-            jdbcTemplate.update(
-                    "INSERT INTO query_logs (query_text, top_k, latency_ms, status) VALUES (?, ?, ?, ?)",
-                    query == null ? "" : query,
-                    topK,
-                    latencyMs,
-                    status
-            );
+            List<Entry> batch = new ArrayList<>(batchSize);
+            do {
+                batch.clear();
+                if (buffer.drainTo(batch, batchSize) == 0) {
+                    return;
+                }
+                insertBatch(batch);
+            } while (batch.size() == batchSize);
+        } catch (RuntimeException ex) {
+            // Keep the scheduled writer alive whatever happens to one batch.
+            log.warn("event=query_log_flush_failed error=\"{}\"", ex.getMessage());
+        }
+    }
+
+    private void insertBatch(List<Entry> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Entry entry : batch) {
+            rows.add(new Object[]{
+                    entry.query(),
+                    entry.topK(),
+                    entry.latencyMs(),
+                    entry.status(),
+                    new Timestamp(entry.createdAtMillis())
+            });
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            increment(writtenCounter, batch.size());
         } catch (Exception ex) {
-            log.debug("query_logs write skipped: {}", ex.getMessage());
+            increment(failedCounter, batch.size());
+            log.debug("query_logs batch write skipped: entries={} error={}", batch.size(), ex.getMessage());
+        }
+    }
+
+    private static void increment(Counter counter, int amount) {
+        if (counter != null) {
+            counter.increment(amount);
+        }
+    }
+
+    /**
+     * Inserts whatever is still buffered and stops the writer. The final flush runs on the writer
+     * thread itself, since the ring buffer allows a single consumer only.
+     */
+    @Override
+    public void destroy() {
+        writer.execute(this::flushPending);
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                log.warn("event=query_log_shutdown_timeout pending={}", buffer.size());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
         }
     }
 }
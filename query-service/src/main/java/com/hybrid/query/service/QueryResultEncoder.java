@@ -0,0 +1,66 @@
+package com.hybrid.query.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hybrid.query.grpc.HybridSearchResponse;
+import com.hybrid.query.grpc.RankedResultMessage;
+import com.hybrid.query.model.QueryResult;
+import com.hybrid.query.model.RankedResult;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+
+/**
+ * Produces the wire forms of a {@link QueryResult} for the REST and gRPC layers. Encodings are
+ * memoized on the result, so an in-memory cache hit writes bytes that were built for an earlier
+ * response instead of serializing the object graph again.
+ */
+@Component
+public class QueryResultEncoder {
+
+    private final ObjectMapper objectMapper;
+
+    public QueryResultEncoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper == null ? new ObjectMapper() : objectMapper;
+    }
+
+    public byte[] json(QueryResult result) {
+        return result.jsonBytes(this::encodeJson);
+    }
+
+    public byte[] protobuf(QueryResult result) {
+        return result.protobufBytes(value -> toResponse(value).toByteArray());
+    }
+
+    public static HybridSearchResponse toResponse(QueryResult result) {
+        HybridSearchResponse.Builder builder = HybridSearchResponse.newBuilder()
+                .setMessage(safe(result.getMessage()))
+                .setSolrResult(safe(result.getSolrResult()))
+                .setVectorResult(safe(result.getVectorResult()));
+
+        for (RankedResult rankedResult : result.getRankedResults()) {
+            builder.addRankedResults(
+                    RankedResultMessage.newBuilder()
+                            .setId(safe(rankedResult.getId()))
+                            .setTitle(safe(rankedResult.getTitle()))
+                            .setScore(rankedResult.getScore())
+                            .setLexicalScore(rankedResult.getLexicalScore())
+                            .setSemanticScore(rankedResult.getSemanticScore())
+                            .build()
+            );
+        }
+        return builder.build();
+    }
+
+    private byte[] encodeJson(QueryResult result) {
+        try {
+            return objectMapper.writeValueAsBytes(result);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String safe(String value) {
+        return value == null ? "" : value;
+    }
+}
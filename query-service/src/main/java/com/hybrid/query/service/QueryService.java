@@ -1,7 +1,5 @@
 package com.hybrid.query.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hybrid.query.model.QueryRequest;
 import com.hybrid.query.model.QueryResult;
 import com.hybrid.query.model.RankedResult;
@@ -11,21 +9,23 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
+import java.time.Duration;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class QueryService {
@@ -46,73 +46,85 @@ public class QueryService {
     private static final String DEFAULT_QUERY_MODE = MODE_HYBRID;
     private static final String EMPTY_SOLR_RESPONSE = "{\"response\":{\"docs\":[]}}";
     private static final String EMPTY_VECTOR_RESPONSE = "[]";
+    private static final RetrievalHits EMPTY_SOLR_HITS = RetrievalHits.empty(EMPTY_SOLR_RESPONSE);
+    private static final RetrievalHits EMPTY_VECTOR_HITS = RetrievalHits.empty(EMPTY_VECTOR_RESPONSE);
+    private static final String CACHE_LAYER_REDIS = "redis";
+    private static final String CACHE_LAYER_INMEMORY = "inmemory";
+    private static final QueryStatusSink NO_STATUS = (query, topK, startNanos, status) -> {
+    };
 
     private final LexicalSearchClient lexicalSearchClient;
     private final SemanticSearchClient semanticSearchClient;
-    private final ObjectMapper objectMapper;
     private final MeterRegistry meterRegistry;
     private final QueryLogService queryLogService;
     private final HybridQueryCacheService queryCacheService;
     private final RedisQueryCacheClient redisQueryCacheClient;
+    private final RetrievalStageExecutors stageExecutors;
     private final long totalBudgetMs;
-    private final long vectorStageBudgetMs;
-    private final long lexicalStageBudgetMs;
-    private final ConcurrentHashMap<String, Object> inFlightLocks = new ConcurrentHashMap<>();
+    private final AdaptiveStageBudgetController budgetController;
+    private final QueryCanonicalizer canonicalizer;
+    private final ConcurrentHashMap<String, InFlightQuery> inFlightQueries = new ConcurrentHashMap<>();
 
     public QueryService(
             LexicalSearchClient lexicalSearchClient,
-            SemanticSearchClient semanticSearchClient,
-            ObjectMapper objectMapper
+            SemanticSearchClient semanticSearchClient
     ) {
         this(
                 lexicalSearchClient,
                 semanticSearchClient,
-                objectMapper,
+                null,
                 null,
                 null,
                 null,
                 null,
                 DEFAULT_TOTAL_BUDGET_MS,
-                DEFAULT_VECTOR_STAGE_BUDGET_MS
+                DEFAULT_VECTOR_STAGE_BUDGET_MS,
+                0L,
+                null,
+                null
         );
     }
 
     public QueryService(
             LexicalSearchClient lexicalSearchClient,
             SemanticSearchClient semanticSearchClient,
-            ObjectMapper objectMapper,
             MeterRegistry meterRegistry
     ) {
         this(
                 lexicalSearchClient,
                 semanticSearchClient,
-                objectMapper,
                 meterRegistry,
                 null,
                 null,
                 null,
+                null,
                 DEFAULT_TOTAL_BUDGET_MS,
-                DEFAULT_VECTOR_STAGE_BUDGET_MS
+                DEFAULT_VECTOR_STAGE_BUDGET_MS,
+                0L,
+                null,
+                null
         );
     }
 
     public QueryService(
             LexicalSearchClient lexicalSearchClient,
             SemanticSearchClient semanticSearchClient,
-            ObjectMapper objectMapper,
             long totalBudgetMs,
             long vectorStageBudgetMs
     ) {
         this(
                 lexicalSearchClient,
                 semanticSearchClient,
-                objectMapper,
+                null,
                 null,
                 null,
                 null,
                 null,
                 totalBudgetMs,
-                vectorStageBudgetMs
+                vectorStageBudgetMs,
+                0L,
+                null,
+                null
         );
     }
 
@@ -120,25 +132,34 @@ public class QueryService {
     public QueryService(
             LexicalSearchClient lexicalSearchClient,
             SemanticSearchClient semanticSearchClient,
-            ObjectMapper objectMapper,
             MeterRegistry meterRegistry,
             QueryLogService queryLogService,
             HybridQueryCacheService queryCacheService,
             RedisQueryCacheClient redisQueryCacheClient,
+            RetrievalStageExecutors stageExecutors,
             @Value("${query.execution.total-budget-ms:350}") long totalBudgetMs,
-            @Value("${query.execution.vector-stage-budget-ms:120}") long vectorStageBudgetMs
+            @Value("${query.execution.vector-stage-budget-ms:120}") long vectorStageBudgetMs,
+            @Value("${query.execution.lexical-stage-budget-ms:0}") long lexicalStageBudgetMs,
+            AdaptiveStageBudgetController budgetController,
+            QueryCanonicalizer canonicalizer
     ) {
         this.lexicalSearchClient = lexicalSearchClient;
         this.semanticSearchClient = semanticSearchClient;
-        this.objectMapper = objectMapper;
         this.meterRegistry = meterRegistry;
         this.queryLogService = queryLogService;
         this.queryCacheService = queryCacheService;
         this.redisQueryCacheClient = redisQueryCacheClient;
-        BudgetConfig config = computeBudgetConfig(totalBudgetMs, vectorStageBudgetMs);
+        this.stageExecutors = stageExecutors == null ? new RetrievalStageExecutors() : stageExecutors;
+        BudgetConfig config = computeBudgetConfig(totalBudgetMs, vectorStageBudgetMs, lexicalStageBudgetMs);
         this.totalBudgetMs = config.totalBudgetMs();
-        this.vectorStageBudgetMs = config.vectorBudgetMs();
-        this.lexicalStageBudgetMs = config.lexicalBudgetMs();
+        this.budgetController = budgetController == null ? new AdaptiveStageBudgetController() : budgetController;
+        this.canonicalizer = canonicalizer == null ? new QueryCanonicalizer() : canonicalizer;
+        this.budgetController.configure(
+                config.totalBudgetMs(),
+                MIN_STAGE_BUDGET_MS,
+                config.lexicalBudgetMs(),
+                config.vectorBudgetMs()
+        );
     }
 
     public QueryResult executeHybridSearch(QueryRequest request) {
@@ -147,127 +168,493 @@ public class QueryService {
     }
 
     public QueryResult executeHybridSearch(QueryRequest request, String traceId) {
+        return executeHybridSearch(request, traceId, null);
+    }
+
+    /**
+     * Runs the search within {@code deadlineMs}, the time the caller has left (for example from the
+     * gateway's deadline header), or within the configured total budget if that is shorter or absent.
+     */
+    public QueryResult executeHybridSearch(QueryRequest request, String traceId, Long deadlineMs) {
+        return executeHybridSearch(request, traceId, deadlineMs, this::recordQueryLog);
+    }
+
+    /**
+     * Runs the search like user traffic, filling the caches, but without writing it to
+     * {@code query_logs}: startup warmup replays the logged queries and must not feed its own
+     * replays back into the next warmup's ranking. Returns the status that would have been logged,
+     * e.g. {@code SUCCESS}, {@code CACHE_HIT_REDIS} or {@code PARTIAL_DOWNSTREAM_ERROR}.
+     */
+    public String executeWarmupSearch(QueryRequest request, String traceId) {
+        AtomicReference<String> status = new AtomicReference<>();
+        executeHybridSearch(request, traceId, null, (query, topK, startNanos, outcome) -> status.set(outcome));
+        return status.get();
+    }
+
+    private QueryResult executeHybridSearch(QueryRequest request, String traceId, Long deadlineMs, QueryStatusSink statusSink) {
         String effectiveTraceId = (traceId == null || traceId.isBlank()) ? UUID.randomUUID().toString() : traceId;
         long totalStart = System.nanoTime();
-        String query = request == null ? null : request.getQuery();
+        long totalDeadline = totalDeadlineNanos(totalStart, deadlineMs);
+        String query = backendQuery(request);
+        String cacheQuery = canonicalizer.cacheKey(canonicalizer.normalize(query));
         int topK = resolveTopK(request);
+        int depth = canonicalizer.executionDepth(topK);
         QueryMode resolvedMode = resolveMode(request == null ? null : request.getMode());
         ResultFilter resolvedFilter = resolveFilter(request == null ? null : request.getFilter());
+        FusionStrategy resolvedFusion = FusionStrategies.resolve(request == null ? null : request.getFusion());
+        boolean debug = isDebug(request);
         log.info("trace_id={} event=query_start query=\"{}\" top_k={}", effectiveTraceId, sanitizeForLog(query), topK);
+        if (remainingBudgetMs(totalDeadline) <= 0) {
+            return deadlineExceeded(effectiveTraceId);
+        }
 
-        QueryResult cached = redisQueryCacheClient == null ? null :
-                redisQueryCacheClient.get(query, topK, resolvedMode.label(), resolvedFilter.label());
+        // Cached results are lean, so debug requests always go to the backends for fresh payloads.
+        // The in-memory layer is checked first: its entries carry their encoded response bytes.
+        CachedQuery cached = queryCacheService == null || debug ? null :
+                lookupInMemory(cacheQuery, topK, resolvedMode, resolvedFilter, resolvedFusion);
         if (cached != null) {
-            incrementCounter("query_result_redis_cache_hit_total");
-            recordQueryLog(query, topK, totalStart, "CACHE_HIT_REDIS");
-            log.info(
-                    "trace_id={} event=query_cache_hit layer=redis total_ms={}",
-                    effectiveTraceId,
-                    elapsedMillis(totalStart)
-            );
-            return copyResult(cached);
+            refreshIfDue(cached, query, cacheQuery, topK, depth, resolvedMode, resolvedFilter, resolvedFusion, effectiveTraceId);
+            return cacheHit(cached.result(), CACHE_LAYER_INMEMORY, query, topK, totalStart, effectiveTraceId, statusSink);
         }
-        incrementCounter("query_result_redis_cache_miss_total");
+        incrementCounter("query_result_inmemory_cache_miss_total");
 
-        cached = queryCacheService == null ? null :
-                queryCacheService.get(query, topK, resolvedMode.label(), resolvedFilter.label());
+        // A blank query is the same match-all request on every instance, so it is kept in memory only.
+        cached = redisQueryCacheClient == null || debug || isBlank(query) ? null :
+                redisQueryCacheClient.get(cacheQuery, depth, resolvedMode.label(), resolvedFilter.label(), resolvedFusion.name());
         if (cached != null) {
-            incrementCounter("query_result_inmemory_cache_hit_total");
-            recordQueryLog(query, topK, totalStart, "CACHE_HIT_INMEMORY");
-            log.info(
-                    "trace_id={} event=query_cache_hit layer=inmemory total_ms={}",
-                    effectiveTraceId,
-                    elapsedMillis(totalStart)
-            );
-            return copyResult(cached);
+            refreshIfDue(cached, query, cacheQuery, topK, depth, resolvedMode, resolvedFilter, resolvedFusion, effectiveTraceId);
+            QueryResult promoted = promoteToMemory(cacheQuery, topK, depth, resolvedMode, resolvedFilter, resolvedFusion, cached);
+            return cacheHit(promoted, CACHE_LAYER_REDIS, query, topK, totalStart, effectiveTraceId, statusSink);
         }
-        incrementCounter("query_result_inmemory_cache_miss_total");
+        incrementCounter("query_result_redis_cache_miss_total");
 
-        String lockKey = buildCacheKey(query, topK, resolvedMode, resolvedFilter);
-        Object lock = inFlightLocks.computeIfAbsent(lockKey, ignored -> new Object());
-        try {
-            synchronized (lock) {
-                cached = redisQueryCacheClient == null ? null :
-                        redisQueryCacheClient.get(query, topK, resolvedMode.label(), resolvedFilter.label());
-                if (cached != null) {
-                    incrementCounter("query_result_redis_cache_hit_total");
-                    recordQueryLog(query, topK, totalStart, "CACHE_HIT_REDIS");
-                    log.info(
-                            "trace_id={} event=query_cache_hit layer=redis total_ms={}",
-                            effectiveTraceId,
-                            elapsedMillis(totalStart)
-                    );
-                    return copyResult(cached);
+        String flightKey = buildCacheKey(cacheQuery, depth, resolvedMode, resolvedFilter, resolvedFusion) + (debug ? "::debug" : "");
+        InFlightQuery flight = new InFlightQuery(new CompletableFuture<>(), new AtomicInteger());
+        InFlightQuery leader = inFlightQueries.putIfAbsent(flightKey, flight);
+        if (leader != null) {
+            try {
+                return followInFlight(leader, query, topK, totalStart, totalDeadline, effectiveTraceId, statusSink)
+                        .thenApply(shared -> shared.truncated(topK))
+                        .join();
+            } catch (CompletionException ex) {
+                // Fail the way the leader does: with its exception, not the future's wrapper.
+                Throwable cause = ex.getCause();
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime;
                 }
-
-                cached = queryCacheService == null ? null :
-                        queryCacheService.get(query, topK, resolvedMode.label(), resolvedFilter.label());
-                if (cached != null) {
-                    incrementCounter("query_result_inmemory_cache_hit_total");
-                    recordQueryLog(query, topK, totalStart, "CACHE_HIT_INMEMORY");
-                    log.info(
-                            "trace_id={} event=query_cache_hit layer=inmemory total_ms={}",
-                            effectiveTraceId,
-                            elapsedMillis(totalStart)
-                    );
-                    return copyResult(cached);
+                if (cause instanceof Error error) {
+                    throw error;
                 }
-
-                return executeAndCache(query, topK, totalStart, effectiveTraceId, resolvedMode, resolvedFilter);
+                throw ex;
             }
+        }
+
+        incrementCounter("query_coalesce_leader_total");
+        try {
+            QueryResult result = executeAndCache(
+                    query, cacheQuery, depth, totalStart, totalDeadline, effectiveTraceId, resolvedMode, resolvedFilter, resolvedFusion, debug, statusSink
+            );
+            flight.result().complete(result);
+            return result.truncated(topK);
+        } catch (Throwable ex) {
+            // Errors too: followers are waiting on this future and must never be left hanging.
+            flight.result().completeExceptionally(ex);
+            throw ex;
         } finally {
-            inFlightLocks.remove(lockKey, lock);
+            releaseInFlight(flightKey, flight);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #executeHybridSearch(QueryRequest, String)}: cache lookups,
+     * both retrieval stages and the fusion step are composed as one {@link Mono}, so no thread is
+     * parked while Solr, vector-service or caching-service are answering.
+     */
+    public Mono<QueryResult> executeHybridSearchReactive(QueryRequest request, String traceId) {
+        return executeHybridSearchReactive(request, traceId, null);
+    }
+
+    public Mono<QueryResult> executeHybridSearchReactive(QueryRequest request, String traceId, Long deadlineMs) {
+        return Mono.defer(() -> {
+            String effectiveTraceId = (traceId == null || traceId.isBlank()) ? UUID.randomUUID().toString() : traceId;
+            long totalStart = System.nanoTime();
+            long totalDeadline = totalDeadlineNanos(totalStart, deadlineMs);
+            String query = backendQuery(request);
+            String cacheQuery = canonicalizer.cacheKey(canonicalizer.normalize(query));
+            int topK = resolveTopK(request);
+            int depth = canonicalizer.executionDepth(topK);
+            QueryMode resolvedMode = resolveMode(request == null ? null : request.getMode());
+            ResultFilter resolvedFilter = resolveFilter(request == null ? null : request.getFilter());
+            FusionStrategy resolvedFusion = FusionStrategies.resolve(request == null ? null : request.getFusion());
+            boolean debug = isDebug(request);
+            log.info("trace_id={} event=query_start query=\"{}\" top_k={}", effectiveTraceId, sanitizeForLog(query), topK);
+            if (remainingBudgetMs(totalDeadline) <= 0) {
+                return Mono.just(deadlineExceeded(effectiveTraceId));
+            }
+
+            CachedQuery cachedInMemory = queryCacheService == null || debug ? null :
+                    lookupInMemory(cacheQuery, topK, resolvedMode, resolvedFilter, resolvedFusion);
+            if (cachedInMemory != null) {
+                refreshIfDue(cachedInMemory, query, cacheQuery, topK, depth, resolvedMode, resolvedFilter, resolvedFusion, effectiveTraceId);
+                return Mono.just(cacheHit(cachedInMemory.result(), CACHE_LAYER_INMEMORY, query, topK, totalStart, effectiveTraceId, this::recordQueryLog));
+            }
+            incrementCounter("query_result_inmemory_cache_miss_total");
+
+            Mono<CachedQuery> redisLookup = redisQueryCacheClient == null || debug || isBlank(query) ? Mono.empty() :
+                    redisQueryCacheClient.getReactive(cacheQuery, depth, resolvedMode.label(), resolvedFilter.label(), resolvedFusion.name());
+            return redisLookup
+                    .map(cached -> {
+                        refreshIfDue(cached, query, cacheQuery, topK, depth, resolvedMode, resolvedFilter, resolvedFusion, effectiveTraceId);
+                        QueryResult promoted = promoteToMemory(cacheQuery, topK, depth, resolvedMode, resolvedFilter, resolvedFusion, cached);
+                        return cacheHit(promoted, CACHE_LAYER_REDIS, query, topK, totalStart, effectiveTraceId, this::recordQueryLog);
+                    })
+                    .switchIfEmpty(Mono.defer(() -> {
+                        incrementCounter("query_result_redis_cache_miss_total");
+
+                        String flightKey = buildCacheKey(cacheQuery, depth, resolvedMode, resolvedFilter, resolvedFusion) + (debug ? "::debug" : "");
+                        InFlightQuery flight = new InFlightQuery(new CompletableFuture<>(), new AtomicInteger());
+                        InFlightQuery leader = inFlightQueries.putIfAbsent(flightKey, flight);
+                        if (leader != null) {
+                            return Mono.fromFuture(followInFlight(leader, query, topK, totalStart, totalDeadline, effectiveTraceId, this::recordQueryLog), true)
+                                    .map(shared -> shared.truncated(topK));
+                        }
+
+                        incrementCounter("query_coalesce_leader_total");
+                        // The leader's execution is not tied to its own subscriber: followers may still be
+                        // waiting on the shared future after the leader's caller has gone away.
+                        executeAndCacheReactive(
+                                query, cacheQuery, depth, totalStart, totalDeadline, effectiveTraceId, resolvedMode, resolvedFilter, resolvedFusion, debug
+                        )
+                                .subscribe(
+                                        flight.result()::complete,
+                                        flight.result()::completeExceptionally,
+                                        () -> flight.result().completeExceptionally(
+                                                new IllegalStateException("Hybrid search completed without a result"))
+                                );
+                        flight.result().whenComplete((result, error) -> releaseInFlight(flightKey, flight));
+                        return Mono.fromFuture(flight.result(), true)
+                                .map(result -> result.truncated(topK));
+                    }));
+        });
+    }
+
+    /**
+     * Attaches a caller to an identical query that is already executing. The caller neither
+     * re-checks the caches nor touches the backends; it shares the leader's immutable result.
+     * It waits no longer than its own deadline, which may be shorter than the leader's, and then
+     * gets an empty result, as a timed-out stage would.
+     */
+    private CompletableFuture<QueryResult> followInFlight(
+            InFlightQuery leader,
+            String query,
+            int topK,
+            long totalStart,
+            long totalDeadline,
+            String effectiveTraceId,
+            QueryStatusSink statusSink
+    ) {
+        leader.followers().incrementAndGet();
+        incrementCounter("query_coalesce_follower_total");
+        log.info("trace_id={} event=query_coalesced", effectiveTraceId);
+        long waitNanos = Math.max(0L, totalDeadline - System.nanoTime());
+        // orTimeout applies to the dependent future only; the shared one is still completed by the leader.
+        return leader.result()
+                .thenApply(shared -> {
+                    statusSink.accept(query, topK, totalStart, "COALESCED");
+                    return shared;
+                })
+                .orTimeout(waitNanos, TimeUnit.NANOSECONDS)
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (!(cause instanceof TimeoutException)) {
+                        throw error instanceof CompletionException completion ? completion : new CompletionException(cause);
+                    }
+                    incrementCounter("query_coalesce_timeout_total");
+                    log.warn("trace_id={} event=query_coalesce_timeout", effectiveTraceId);
+                    statusSink.accept(query, topK, totalStart, "COALESCED_TIMEOUT");
+                    return new QueryResult("Coalesced query did not complete within the request deadline", List.of());
+                });
+    }
+
+    /**
+     * Answer for a request whose propagated deadline had already passed on arrival: the caller has
+     * given up, so neither the caches nor the backends are worth touching.
+     */
+    private QueryResult deadlineExceeded(String effectiveTraceId) {
+        incrementCounter("query_deadline_exceeded_total");
+        log.warn("trace_id={} event=query_deadline_exceeded", effectiveTraceId);
+        return new QueryResult("Request deadline had passed before retrieval started", List.of());
+    }
+
+    private void releaseInFlight(String flightKey, InFlightQuery flight) {
+        inFlightQueries.remove(flightKey, flight);
+        if (flight.followers().get() > 0) {
+            incrementCounter("query_coalesced_total");
+        }
+    }
+
+    /**
+     * In-memory lookup for {@code topK}: the exact entry if present, otherwise the shallowest
+     * cached deeper result, cut down to {@code topK}. The cut view is cached under {@code topK}
+     * with the deeper entry's timing, so later hits reuse it and its encoded bytes.
+     */
+    private CachedQuery lookupInMemory(
+            String cacheQuery,
+            int topK,
+            QueryMode mode,
+            ResultFilter filter,
+            FusionStrategy fusion
+    ) {
+        CachedQuery exact = queryCacheService.get(cacheQuery, topK, mode.label(), filter.label(), fusion.name());
+        if (exact != null) {
+            return exact;
+        }
+        for (int depth : canonicalizer.coveringDepths(topK)) {
+            if (depth == topK) {
+                continue;
+            }
+            CachedQuery deeper = queryCacheService.get(cacheQuery, depth, mode.label(), filter.label(), fusion.name());
+            if (deeper != null) {
+                incrementCounter("query_cache_topk_subsumed_total");
+                CachedQuery view = deeper.withResult(deeper.result().truncated(topK));
+                queryCacheService.put(cacheQuery, topK, mode.label(), filter.label(), fusion.name(), view);
+                return view;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Keeps a Redis hit in the in-memory layer so that repeats of a hot query are served from local
+     * memory, with the encoded bytes built by the first of them.
+     */
+    private QueryResult promoteToMemory(
+            String cacheQuery,
+            int topK,
+            int depth,
+            QueryMode mode,
+            ResultFilter filter,
+            FusionStrategy fusion,
+            CachedQuery cached
+    ) {
+        QueryResult view = cached.result().truncated(topK);
+        if (queryCacheService != null) {
+            queryCacheService.put(cacheQuery, depth, mode.label(), filter.label(), fusion.name(), cached);
+            if (view != cached.result()) {
+                queryCacheService.put(cacheQuery, topK, mode.label(), filter.label(), fusion.name(), cached.withResult(view));
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Stale-while-revalidate: when a hit is stale or due for early refresh, recomputes it once in
+     * the background while the caller is served the cached result. The refresh registers as the
+     * in-flight execution for its key, so concurrent hits do not start another one and a
+     * concurrent miss follows it instead of calling the backends again.
+     */
+    private void refreshIfDue(
+            CachedQuery cached,
+            String query,
+            String cacheQuery,
+            int topK,
+            int depth,
+            QueryMode mode,
+            ResultFilter filter,
+            FusionStrategy fusion,
+            String effectiveTraceId
+    ) {
+        if (!cached.refreshDue()) {
+            return;
         }
+        String flightKey = buildCacheKey(cacheQuery, depth, mode, filter, fusion);
+        InFlightQuery flight = new InFlightQuery(new CompletableFuture<>(), new AtomicInteger());
+        if (inFlightQueries.putIfAbsent(flightKey, flight) != null) {
+            return;
+        }
+        incrementCounter("query_cache_refresh_total");
+        String refreshTraceId = effectiveTraceId + "-refresh";
+        stageExecutors.refresh().submit(() -> {
+            long start = System.nanoTime();
+            QueryResult refreshed = executeAndCache(
+                    query, cacheQuery, depth, start, totalDeadlineNanos(start, null), refreshTraceId, mode, filter, fusion, false, NO_STATUS
+            );
+            if (topK != depth && queryCacheService != null) {
+                // The view that triggered the refresh would otherwise stay stale until it expires.
+                queryCacheService.put(
+                        cacheQuery, topK, mode.label(), filter.label(), fusion.name(),
+                        refreshed.truncated(topK), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                        queryCacheService.isNegative(refreshed)
+                );
+            }
+            return refreshed;
+        }).whenComplete((refreshed, error) -> {
+            if (error != null) {
+                incrementCounter("query_cache_refresh_failed_total");
+                log.warn("trace_id={} event=query_cache_refresh_failed error=\"{}\"", refreshTraceId, error.getMessage());
+                flight.result().completeExceptionally(error);
+            } else {
+                flight.result().complete(refreshed);
+            }
+            releaseInFlight(flightKey, flight);
+        });
+    }
+
+    private QueryResult cacheHit(
+            QueryResult cached,
+            String layer,
+            String query,
+            int topK,
+            long totalStart,
+            String effectiveTraceId,
+            QueryStatusSink statusSink
+    ) {
+        incrementCounter("query_result_" + layer + "_cache_hit_total");
+        statusSink.accept(query, topK, totalStart, "CACHE_HIT_" + layer.toUpperCase(Locale.ROOT));
+        log.info(
+                "trace_id={} event=query_cache_hit layer={} total_ms={}",
+                effectiveTraceId,
+                layer,
+                elapsedMillis(totalStart)
+        );
+        return cached;
     }
 
     private QueryResult executeAndCache(
             String query,
+            String cacheQuery,
             int topK,
             long totalStart,
+            long totalDeadline,
             String effectiveTraceId,
             QueryMode mode,
-            ResultFilter filter
+            ResultFilter filter,
+            FusionStrategy fusion,
+            boolean debug,
+            QueryStatusSink statusSink
     ) {
 
-        TimedSearchResult solrTimed = timedSearch(
+        long fanOutStart = System.nanoTime();
+        long lexicalDeadline = stageDeadlineNanos(
+                fanOutStart, budgetController.budgetMs(AdaptiveStageBudgetController.Stage.LEXICAL), totalDeadline
+        );
+        long vectorDeadline = stageDeadlineNanos(
+                fanOutStart, budgetController.budgetMs(AdaptiveStageBudgetController.Stage.VECTOR), totalDeadline
+        );
+        StageCall lexicalCall = launchStage(
+                stageExecutors.lexical(),
+                "solr_query_latency_ms",
+                () -> lexicalSearchClient.searchHits(query),
+                EMPTY_SOLR_HITS
+        );
+        StageCall vectorCall = remainingBudgetMs(totalDeadline) < MIN_STAGE_BUDGET_MS ? null : launchStage(
+                stageExecutors.vector(),
+                "vector_query_latency_ms",
+                () -> semanticSearchClient.searchHits(query, topK, vectorDeadline),
+                EMPTY_VECTOR_HITS
+        );
+
+        TimedSearchResult solrTimed = awaitStage(lexicalCall, lexicalDeadline);
+        TimedSearchResult vectorTimed = vectorCall == null ? skippedVectorStage() : awaitStage(vectorCall, vectorDeadline);
+
+        QueryResult result = fuseStages(query, topK, effectiveTraceId, mode, filter, fusion, debug, solrTimed, vectorTimed);
+        long computeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - fanOutStart);
+        if (redisQueryCacheClient != null && !isBlank(query)) {
+            redisQueryCacheClient.put(cacheQuery, topK, mode.label(), filter.label(), fusion.name(), result.withoutPayloads(), computeMillis);
+        }
+        if (queryCacheService != null) {
+            queryCacheService.put(cacheQuery, topK, mode.label(), filter.label(), fusion.name(), result.withoutPayloads(), computeMillis);
+        }
+        String executionStatus = completeQuery(query, topK, totalStart, effectiveTraceId, solrTimed, vectorTimed);
+        statusSink.accept(query, topK, totalStart, executionStatus);
+        return result;
+    }
+
+    private Mono<QueryResult> executeAndCacheReactive(
+            String query,
+            String cacheQuery,
+            int topK,
+            long totalStart,
+            long totalDeadline,
+            String effectiveTraceId,
+            QueryMode mode,
+            ResultFilter filter,
+            FusionStrategy fusion,
+            boolean debug
+    ) {
+        long fanOutStart = System.nanoTime();
+        long lexicalDeadline = stageDeadlineNanos(
+                fanOutStart, budgetController.budgetMs(AdaptiveStageBudgetController.Stage.LEXICAL), totalDeadline
+        );
+        long vectorDeadline = stageDeadlineNanos(
+                fanOutStart, budgetController.budgetMs(AdaptiveStageBudgetController.Stage.VECTOR), totalDeadline
+        );
+        Mono<TimedSearchResult> lexicalStage = reactiveStage(
                 "solr_query_latency_ms",
-                () -> lexicalSearchClient.search(query),
-                EMPTY_SOLR_RESPONSE,
-                lexicalStageBudgetMs
+                lexicalSearchMono(query),
+                EMPTY_SOLR_HITS,
+                lexicalDeadline
         );
-        String solrResponse = solrTimed.payload();
+        Mono<TimedSearchResult> vectorStage = remainingBudgetMs(totalDeadline) < MIN_STAGE_BUDGET_MS
+                ? Mono.fromSupplier(this::skippedVectorStage)
+                : reactiveStage(
+                        "vector_query_latency_ms",
+                        semanticSearchMono(query, topK, vectorDeadline),
+                        EMPTY_VECTOR_HITS,
+                        vectorDeadline
+                );
+
+        return Mono.zip(lexicalStage, vectorStage).map(stages -> {
+            TimedSearchResult solrTimed = stages.getT1();
+            TimedSearchResult vectorTimed = stages.getT2();
+            QueryResult result = fuseStages(query, topK, effectiveTraceId, mode, filter, fusion, debug, solrTimed, vectorTimed);
+            long computeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - fanOutStart);
+            if (redisQueryCacheClient != null && !isBlank(query)) {
+                redisQueryCacheClient.putReactive(
+                        cacheQuery, topK, mode.label(), filter.label(), fusion.name(), result.withoutPayloads(), computeMillis
+                ).subscribe();
+            }
+            if (queryCacheService != null) {
+                queryCacheService.put(cacheQuery, topK, mode.label(), filter.label(), fusion.name(), result.withoutPayloads(), computeMillis);
+            }
+            String executionStatus = completeQuery(query, topK, totalStart, effectiveTraceId, solrTimed, vectorTimed);
+            Mono.fromRunnable(() -> recordQueryLog(query, topK, totalStart, executionStatus))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .subscribe();
+            return result;
+        });
+    }
+
+    private QueryResult fuseStages(
+            String query,
+            int topK,
+            String effectiveTraceId,
+            QueryMode mode,
+            ResultFilter filter,
+            FusionStrategy fusion,
+            boolean debug,
+            TimedSearchResult solrTimed,
+            TimedSearchResult vectorTimed
+    ) {
+        RetrievalHits lexicalSignals = solrTimed.hits();
         log.info(
-                "trace_id={} stage=lexical_search duration_ms={} outcome={} payload_bytes={}",
+                "trace_id={} stage=lexical_search duration_ms={} outcome={} hits={}",
                 effectiveTraceId,
                 solrTimed.durationMs(),
                 solrTimed.outcome(),
-                payloadSize(solrResponse)
+                lexicalSignals.size()
         );
-
-        TimedSearchResult vectorTimed = timedVectorSearch(totalStart, query, topK);
-        String vectorResponse = vectorTimed.payload();
+        RetrievalHits semanticSignals = vectorTimed.hits();
         log.info(
-                "trace_id={} stage=vector_search duration_ms={} outcome={} payload_bytes={}",
+                "trace_id={} stage=vector_search duration_ms={} outcome={} hits={}",
                 effectiveTraceId,
                 vectorTimed.durationMs(),
                 vectorTimed.outcome(),
-                payloadSize(vectorResponse)
-        );
-
-        long parseStart = System.nanoTime();
-        List<DocSignal> lexicalSignals = parseSolrSignals(solrResponse);
-        List<DocSignal> semanticSignals = parseVectorSignals(vectorResponse);
-        double parseDurationMs = elapsedMillis(parseStart);
-        log.info(
-                "trace_id={} stage=parse_signals duration_ms={} lexical_docs={} semantic_docs={}",
-                effectiveTraceId,
-                parseDurationMs,
-                lexicalSignals.size(),
                 semanticSignals.size()
         );
 
         long mergeStart = System.nanoTime();
-        List<RankedResult> ranked = mergeAndRank(lexicalSignals, semanticSignals, topK, mode, filter);
+        List<RankedResult> ranked = mergeAndRank(lexicalSignals, semanticSignals, topK, mode, filter, fusion);
         recordTimer("ranking_merge_duration_ms", mergeStart);
         double mergeDurationMs = elapsedMillis(mergeStart);
         log.info(
@@ -278,22 +665,32 @@ public class QueryService {
         );
         incrementCounter("hybrid_query_count_total");
 
-        QueryResult result = new QueryResult();
-        result.setMessage(String.format("Hybrid result from Solr + Vector search [mode=%s filter=%s]", mode.label(), filter.label()));
-        result.setSolrResult(solrResponse);
-        result.setVectorResult(vectorResponse);
-        if (filter == ResultFilter.SOLR_ONLY) {
-            result.setVectorResult(EMPTY_VECTOR_RESPONSE);
-        } else if (filter == ResultFilter.VECTOR_ONLY) {
-            result.setSolrResult(EMPTY_SOLR_RESPONSE);
-        }
-        result.setRankedResults(ranked);
-        if (redisQueryCacheClient != null) {
-            redisQueryCacheClient.put(query, topK, mode.label(), filter.label(), copyResult(result));
-        }
-        if (queryCacheService != null) {
-            queryCacheService.put(query, topK, mode.label(), filter.label(), copyResult(result));
+        String message = String.format(
+                "Hybrid result from Solr + Vector search [mode=%s filter=%s fusion=%s]",
+                mode.label(),
+                filter.label(),
+                fusion.name()
+        );
+        if (!debug) {
+            return new QueryResult(message, ranked);
         }
+        // Only debug responses decode or render the raw backend payloads.
+        return new QueryResult(
+                message,
+                filter == ResultFilter.VECTOR_ONLY ? EMPTY_SOLR_RESPONSE : lexicalSignals.rawPayload(),
+                filter == ResultFilter.SOLR_ONLY ? EMPTY_VECTOR_RESPONSE : semanticSignals.rawPayload(),
+                ranked
+        );
+    }
+
+    private String completeQuery(
+            String query,
+            int topK,
+            long totalStart,
+            String effectiveTraceId,
+            TimedSearchResult solrTimed,
+            TimedSearchResult vectorTimed
+    ) {
         String executionStatus = executionStatus(query, solrTimed.outcome(), vectorTimed.outcome());
         log.info(
                 "trace_id={} event=query_complete total_ms={} top_k={} status={}",
@@ -302,235 +699,196 @@ public class QueryService {
                 topK,
                 executionStatus
         );
-        recordQueryLog(query, topK, totalStart, executionStatus);
-        return result;
+        return executionStatus;
     }
 
-    private String buildCacheKey(String query, int topK, QueryMode mode, ResultFilter filter) {
+    private String buildCacheKey(String query, int topK, QueryMode mode, ResultFilter filter, FusionStrategy fusion) {
         return (query == null ? "" : query)
                 + "::" + topK
                 + "::" + mode.label()
-                + "::" + filter.label();
-    }
-
-    public String fetchFacets(String field, Integer limit) {
-        String facetField = (field == null || field.isBlank()) ? "category" : field;
-        int facetLimit = (limit == null || limit <= 0) ? 20 : limit;
-        return safeSearch(() -> lexicalSearchClient.facets(facetField, facetLimit), "{\"facet_counts\":{\"facet_fields\":{}}}");
+                + "::" + filter.label()
+                + "::" + fusion.name();
     }
 
-    private String safeSearch(UnsafeStringSupplier supplier, String fallback) {
-        try {
-            String value = supplier.get();
-            return value == null ? fallback : value;
-        } catch (Exception ex) {
-            return fallback;
-        }
-    }
-
-    private TimedSearchResult timedSearch(
+    private StageCall launchStage(
+            StageBulkhead bulkhead,
             String metricName,
-            UnsafeStringSupplier supplier,
-            String fallback,
-            long timeoutMs
+            UnsafeHitsSupplier supplier,
+            RetrievalHits fallback
     ) {
         long start = System.nanoTime();
-        String value = fallback;
+        AtomicLong completedAt = new AtomicLong();
+        CompletableFuture<RetrievalHits> future = bulkhead.submit(() -> {
+            try {
+                return supplier.get();
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            } finally {
+                completedAt.set(System.nanoTime());
+            }
+        });
+        return new StageCall(metricName, fallback, start, completedAt, future);
+    }
+
+    private TimedSearchResult awaitStage(StageCall call, long deadlineNanos) {
+        RetrievalHits value = call.fallback();
         String outcome = "SUCCESS";
         try {
-            CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> {
-                try {
-                    return supplier.get();
-                } catch (Exception ex) {
-                    throw new RuntimeException(ex);
-                }
-            });
-            String raw = future.get(Math.max(MIN_STAGE_BUDGET_MS, timeoutMs), TimeUnit.MILLISECONDS);
-            value = raw == null ? fallback : raw;
+            long waitNanos = Math.max(0L, deadlineNanos - System.nanoTime());
+            RetrievalHits raw = call.future().get(waitNanos, TimeUnit.NANOSECONDS);
+            value = raw == null ? call.fallback() : raw;
         } catch (TimeoutException ex) {
             outcome = "TIMEOUT";
             incrementCounter("query_stage_timeout_total");
+            cancelStage(call);
         } catch (ExecutionException ex) {
-            outcome = "ERROR";
             Throwable cause = ex.getCause() == null ? ex : ex.getCause();
-            log.warn("query stage failed metric={} cause={}", metricName, cause.toString());
-            incrementCounter("query_stage_error_total");
+            if (cause instanceof RejectedExecutionException) {
+                outcome = "REJECTED";
+                log.warn("query stage rejected metric={} reason=bulkhead_full", call.metricName());
+                incrementCounter("query_stage_rejected_total");
+            } else {
+                outcome = "ERROR";
+                log.warn("query stage failed metric={} cause={}", call.metricName(), cause.toString());
+                incrementCounter("query_stage_error_total");
+            }
         } catch (InterruptedException ex) {
             Thread.currentThread().interrupt();
             outcome = "ERROR";
-            log.warn("query stage interrupted metric={} cause={}", metricName, ex.toString());
+            log.warn("query stage interrupted metric={} cause={}", call.metricName(), ex.toString());
             incrementCounter("query_stage_error_total");
         } catch (Exception ex) {
             outcome = "ERROR";
-            log.warn("query stage failed metric={} cause={}", metricName, ex.toString());
+            log.warn("query stage failed metric={} cause={}", call.metricName(), ex.toString());
             incrementCounter("query_stage_error_total");
-        } finally {
-            recordTimer(metricName, start);
         }
-        return new TimedSearchResult(value, elapsedMillis(start), outcome);
+        // The other stage may have been awaited first, so measure up to this stage's own completion.
+        long completedAt = call.completedAtNanos().get();
+        long durationNanos = (completedAt == 0L ? System.nanoTime() : completedAt) - call.startNanos();
+        recordDuration(call.metricName(), durationNanos);
+        observeStageLatency(call.metricName(), durationNanos, outcome);
+        return new TimedSearchResult(value, durationNanos / 1_000_000.0, outcome);
     }
 
-    private TimedSearchResult timedVectorSearch(long totalStart, String query, int topK) {
-        long remainingMs = remainingBudgetMs(totalStart);
-        if (remainingMs < MIN_STAGE_BUDGET_MS) {
-            incrementCounter("vector_stage_skipped_budget_total");
-            return new TimedSearchResult("[]", 0.0, "SKIPPED_BUDGET");
+    /**
+     * Interrupts the stage worker so its blocking client call unsubscribes from WebClient or cancels
+     * the gRPC call, rather than holding the backend and a bulkhead slot after the deadline.
+     */
+    private void cancelStage(StageCall call) {
+        if (call.future().cancel(true)) {
+            incrementCounter("query_stage_cancelled_total");
         }
-        long stageTimeoutMs = Math.min(vectorStageBudgetMs, remainingMs);
-        return timedSearch(
-                "vector_query_latency_ms",
-                () -> semanticSearchClient.search(query, topK),
-                EMPTY_VECTOR_RESPONSE,
-                stageTimeoutMs
-        );
     }
 
-    private List<DocSignal> parseSolrSignals(String solrJson) {
-        List<DocSignal> docs = new ArrayList<>();
-        try {
-            JsonNode root = objectMapper.readTree(solrJson);
-            JsonNode arr = root.path("response").path("docs");
-            if (!arr.isArray()) {
-                return docs;
-            }
-            int total = arr.size();
-            for (int idx = 0; idx < total; idx++) {
-                JsonNode node = arr.get(idx);
-                String id = node.path("id").asText(null);
-                if (id == null || id.isBlank()) {
-                    continue;
-                }
-                String title = extractTitle(node.get("title"));
-                if (title.isBlank()) {
-                    title = extractTitle(node.get("title_t"));
-                }
-                double score = extractSolrScore(node.get("score"), idx, total);
-                docs.add(new DocSignal(id, title, score));
-            }
-        } catch (IOException ignored) {
-            return docs;
+    private Mono<RetrievalHits> lexicalSearchMono(String query) {
+        if (lexicalSearchClient instanceof ReactiveLexicalSearchClient reactiveClient) {
+            return reactiveClient.searchHitsReactive(query);
         }
-        return docs;
+        return Mono.fromFuture(() -> stageExecutors.lexical().submit(() -> lexicalSearchClient.searchHits(query)));
     }
 
-    private static String extractTitle(JsonNode titleNode) {
-        if (titleNode == null || titleNode.isNull()) {
-            return "";
+    private Mono<RetrievalHits> semanticSearchMono(String query, int topK, long deadlineNanos) {
+        if (semanticSearchClient instanceof ReactiveSemanticSearchClient reactiveClient) {
+            return reactiveClient.searchHitsReactive(query, topK, deadlineNanos);
         }
-        if (titleNode.isTextual()) {
-            return titleNode.asText("");
-        }
-        if (titleNode.isArray() && !titleNode.isEmpty()) {
-            JsonNode first = titleNode.get(0);
-            if (first != null && first.isTextual()) {
-                return first.asText("");
-            }
+        return Mono.fromFuture(() -> stageExecutors.vector().submit(
+                () -> semanticSearchClient.searchHits(query, topK, deadlineNanos)
+        ));
+    }
+
+    private Mono<TimedSearchResult> reactiveStage(
+            String metricName,
+            Mono<RetrievalHits> call,
+            RetrievalHits fallback,
+            long deadlineNanos
+    ) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            Duration timeout = Duration.ofNanos(Math.max(0L, deadlineNanos - start));
+            return call
+                    .timeout(timeout)
+                    .map(raw -> stageResult(metricName, start, raw, "SUCCESS"))
+                    .switchIfEmpty(Mono.fromSupplier(() -> stageResult(metricName, start, fallback, "SUCCESS")))
+                    .onErrorResume(ex -> Mono.just(failedStage(metricName, start, fallback, ex)));
+        });
+    }
+
+    private TimedSearchResult stageResult(String metricName, long startNanos, RetrievalHits hits, String outcome) {
+        long durationNanos = System.nanoTime() - startNanos;
+        recordDuration(metricName, durationNanos);
+        observeStageLatency(metricName, durationNanos, outcome);
+        return new TimedSearchResult(hits, durationNanos / 1_000_000.0, outcome);
+    }
+
+    /**
+     * Feeds the adaptive budgets. Rejected stages never reached the backend; timed-out stages are
+     * kept as censored samples at the deadline so a slowing backend can still grow its budget.
+     */
+    private void observeStageLatency(String metricName, long durationNanos, String outcome) {
+        if ("REJECTED".equals(outcome)) {
+            return;
         }
-        return "";
+        AdaptiveStageBudgetController.Stage stage = "solr_query_latency_ms".equals(metricName)
+                ? AdaptiveStageBudgetController.Stage.LEXICAL
+                : AdaptiveStageBudgetController.Stage.VECTOR;
+        budgetController.record(stage, durationNanos);
     }
 
-    private static double extractSolrScore(JsonNode scoreNode, int index, int total) {
-        if (scoreNode != null && scoreNode.isNumber()) {
-            return scoreNode.asDouble();
+    private TimedSearchResult failedStage(String metricName, long startNanos, RetrievalHits fallback, Throwable error) {
+        if (error instanceof TimeoutException) {
+            incrementCounter("query_stage_timeout_total");
+            return stageResult(metricName, startNanos, fallback, "TIMEOUT");
         }
-        if (scoreNode != null && scoreNode.isTextual()) {
-            try {
-                return Double.parseDouble(scoreNode.asText());
-            } catch (NumberFormatException ignored) {
-            }
+        if (error instanceof RejectedExecutionException) {
+            log.warn("query stage rejected metric={} reason=bulkhead_full", metricName);
+            incrementCounter("query_stage_rejected_total");
+            return stageResult(metricName, startNanos, fallback, "REJECTED");
         }
-        return Math.max(1.0, (double) (total - index));
+        log.warn("query stage failed metric={} cause={}", metricName, error.toString());
+        incrementCounter("query_stage_error_total");
+        return stageResult(metricName, startNanos, fallback, "ERROR");
     }
 
-    private List<DocSignal> parseVectorSignals(String vectorJson) {
-        List<DocSignal> docs = new ArrayList<>();
-        try {
-            JsonNode arr = objectMapper.readTree(vectorJson);
-            if (!arr.isArray()) {
-                return docs;
-            }
-            for (JsonNode node : arr) {
-                JsonNode idNode = node.get("documentId");
-                JsonNode scoreNode = node.get("similarityScore");
-
-                if (idNode == null || idNode.isNull() || idNode.asText().isBlank()) {
-                    continue;
-                }
-                if (scoreNode == null || scoreNode.isNull() || !scoreNode.isNumber()) {
-                    continue;
-                }
+    private TimedSearchResult skippedVectorStage() {
+        incrementCounter("vector_stage_skipped_budget_total");
+        return new TimedSearchResult(EMPTY_VECTOR_HITS, 0.0, "SKIPPED_BUDGET");
+    }
 
-                String id = idNode.asText();
-                String title = node.path("title").asText("");
-                double score = scoreNode.asDouble();
-                docs.add(new DocSignal(id, title, score));
-            }
-        } catch (IOException ignored) {
-            return docs;
-        }
-        return docs;
+    /**
+     * Stages run concurrently, so each one gets its own deadline measured from the fan-out,
+     * capped by whatever is left of the shared total budget. The cap is never lifted: a stage
+     * gets less than its minimum budget rather than outliving the request's deadline.
+     */
+    private long stageDeadlineNanos(long fanOutStartNanos, long stageBudgetMs, long totalDeadline) {
+        long stageDeadline = fanOutStartNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(MIN_STAGE_BUDGET_MS, stageBudgetMs));
+        return Math.min(stageDeadline, totalDeadline);
     }
 
     private List<RankedResult> mergeAndRank(
-            List<DocSignal> lexical,
-            List<DocSignal> semantic,
+            RetrievalHits lexical,
+            RetrievalHits semantic,
             int topK,
             QueryMode mode,
-            ResultFilter filter
+            ResultFilter filter,
+            FusionStrategy fusion
     ) {
-        Map<String, MergedSignal> merged = new HashMap<>();
-
-        List<DocSignal> lexicalStage = filter == ResultFilter.VECTOR_ONLY ? Collections.emptyList() : lexical;
-        List<DocSignal> semanticStage = filter == ResultFilter.SOLR_ONLY ? Collections.emptyList() : semantic;
-        double maxLexical = lexicalStage.stream().mapToDouble(DocSignal::score).max().orElse(1.0);
-        double maxSemantic = semanticStage.stream().mapToDouble(DocSignal::score).max().orElse(1.0);
-
-        for (DocSignal d : lexicalStage) {
-            MergedSignal m = merged.computeIfAbsent(d.id(), id -> new MergedSignal(id));
-            m.title = chooseTitle(m.title, d.title());
-            m.lexicalScore = normalize(d.score(), maxLexical);
-        }
-
-        for (DocSignal d : semanticStage) {
-            MergedSignal m = merged.computeIfAbsent(d.id(), id -> new MergedSignal(id));
-            m.title = chooseTitle(m.title, d.title());
-            m.semanticScore = normalize(d.score(), maxSemantic);
-        }
-
-        List<RankedResult> ranked = new ArrayList<>();
-        for (MergedSignal m : merged.values()) {
-            double fused = (LEXICAL_WEIGHT * m.lexicalScore) + (SEMANTIC_WEIGHT * m.semanticScore);
-            if (filter == ResultFilter.SOLR_ONLY) {
-                fused = m.lexicalScore;
-            } else if (filter == ResultFilter.VECTOR_ONLY) {
-                fused = m.semanticScore;
-            }
-            ranked.add(new RankedResult(m.id, m.title, fused, m.lexicalScore, m.semanticScore));
-        }
-
-        Comparator<RankedResult> comparator = comparatorForMode(mode);
-        boolean hasLexicalScore = ranked.stream().anyMatch(r -> r.getLexicalScore() > 0);
-        boolean hasSemanticScore = ranked.stream().anyMatch(r -> r.getSemanticScore() > 0);
-        if (mode == QueryMode.LEXICAL && !hasLexicalScore) {
-            comparator = Comparator.comparingDouble(RankedResult::getScore).reversed();
-        } else if (mode == QueryMode.SEMANTIC && !hasSemanticScore) {
-            comparator = Comparator.comparingDouble(RankedResult::getScore).reversed();
+        if (filter == ResultFilter.SOLR_ONLY) {
+            return FusionKernel.fuse(lexical, EMPTY_VECTOR_HITS, fusion, 1.0, 0.0, rankByForMode(mode), topK);
         }
-        ranked.sort(comparator);
-        if (ranked.size() <= topK) {
-            return ranked;
+        if (filter == ResultFilter.VECTOR_ONLY) {
+            return FusionKernel.fuse(EMPTY_SOLR_HITS, semantic, fusion, 0.0, 1.0, rankByForMode(mode), topK);
         }
-        return new ArrayList<>(ranked.subList(0, topK));
+        return FusionKernel.fuse(lexical, semantic, fusion, LEXICAL_WEIGHT, SEMANTIC_WEIGHT, rankByForMode(mode), topK);
     }
 
-    private Comparator<RankedResult> comparatorForMode(QueryMode mode) {
+    private static FusionKernel.RankBy rankByForMode(QueryMode mode) {
         switch (mode) {
             case LEXICAL:
-                return Comparator.comparingDouble(RankedResult::getLexicalScore).reversed();
+                return FusionKernel.RankBy.LEXICAL;
             case SEMANTIC:
-                return Comparator.comparingDouble(RankedResult::getSemanticScore).reversed();
+                return FusionKernel.RankBy.SEMANTIC;
             default:
-                return Comparator.comparingDouble(RankedResult::getScore).reversed();
+                return FusionKernel.RankBy.FUSED;
         }
     }
 
@@ -569,29 +927,15 @@ public class QueryService {
         }
     }
 
-    private static double normalize(double value, double max) {
-        if (max <= 0) {
-            return 0.0;
-        }
-        double normalized = value / max;
-        if (normalized < 0) {
-            return 0.0;
-        }
-        return Math.min(normalized, 1.0);
-    }
-
-    private static String chooseTitle(String current, String candidate) {
-        if (current != null && !current.isBlank()) {
-            return current;
-        }
-        return candidate == null ? "" : candidate;
+    private void recordTimer(String metricName, long startNanos) {
+        recordDuration(metricName, System.nanoTime() - startNanos);
     }
 
-    private void recordTimer(String metricName, long startNanos) {
+    private void recordDuration(String metricName, long durationNanos) {
         if (meterRegistry == null) {
             return;
         }
-        meterRegistry.timer(metricName).record(System.nanoTime() - startNanos, java.util.concurrent.TimeUnit.NANOSECONDS);
+        meterRegistry.timer(metricName).record(durationNanos, java.util.concurrent.TimeUnit.NANOSECONDS);
     }
 
     private void incrementCounter(String metricName) {
@@ -609,6 +953,19 @@ public class QueryService {
         queryLogService.write(query, topK, latencyMs, status);
     }
 
+    /**
+     * The query as the backends receive it: the caller's text, trimmed. Canonical forms only key
+     * the caches; lower-casing the query itself would turn edismax operators into terms.
+     */
+    private static String backendQuery(QueryRequest request) {
+        String query = request == null ? null : request.getQuery();
+        return query == null ? null : query.trim();
+    }
+
+    private static boolean isBlank(String query) {
+        return query == null || query.isBlank();
+    }
+
     private static String statusForQuery(String query) {
         if (query == null || query.isBlank()) {
             return "EMPTY_QUERY";
@@ -626,6 +983,9 @@ public class QueryService {
         if ("TIMEOUT".equals(vectorOutcome) || "SKIPPED_BUDGET".equals(vectorOutcome)) {
             return "PARTIAL_VECTOR_TIMEOUT";
         }
+        if ("REJECTED".equals(lexicalOutcome) || "REJECTED".equals(vectorOutcome)) {
+            return "PARTIAL_STAGE_REJECTED";
+        }
         if ("ERROR".equals(lexicalOutcome) || "ERROR".equals(vectorOutcome)) {
             return "PARTIAL_DOWNSTREAM_ERROR";
         }
@@ -640,38 +1000,29 @@ public class QueryService {
         return trimmed.length() > 120 ? trimmed.substring(0, 120) + "..." : trimmed;
     }
 
-    private static int payloadSize(String payload) {
-        return payload == null ? 0 : payload.length();
-    }
-
     private static double elapsedMillis(long startNanos) {
         return (System.nanoTime() - startNanos) / 1_000_000.0;
     }
 
-    private long remainingBudgetMs(long totalStartNanos) {
-        double elapsedMs = elapsedMillis(totalStartNanos);
-        return Math.max(0L, totalBudgetMs - (long) elapsedMs);
-    }
-
-    private static QueryResult copyResult(QueryResult source) {
-        QueryResult target = new QueryResult();
-        target.setMessage(source.getMessage());
-        target.setSolrResult(source.getSolrResult());
-        target.setVectorResult(source.getVectorResult());
-        List<RankedResult> rankedCopy = new ArrayList<>();
-        if (source.getRankedResults() != null) {
-            for (RankedResult r : source.getRankedResults()) {
-                rankedCopy.add(new RankedResult(
-                        r.getId(),
-                        r.getTitle(),
-                        r.getScore(),
-                        r.getLexicalScore(),
-                        r.getSemanticScore()
-                ));
-            }
+    private static long remainingBudgetMs(long totalDeadlineNanos) {
+        return Math.max(0L, TimeUnit.NANOSECONDS.toMillis(totalDeadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * The request's own deadline when the caller propagated a shorter one than the configured total
+     * budget. A deadline that has already passed leaves no budget, and the request is answered
+     * empty without running.
+     */
+    private long totalDeadlineNanos(long totalStartNanos, Long deadlineMs) {
+        long budgetMs = deadlineMs == null ? totalBudgetMs : Math.max(0L, Math.min(totalBudgetMs, deadlineMs));
+        if (deadlineMs != null && deadlineMs < totalBudgetMs) {
+            incrementCounter("query_deadline_propagated_total");
         }
-        target.setRankedResults(rankedCopy);
-        return target;
+        return totalStartNanos + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+    }
+
+    private static boolean isDebug(QueryRequest request) {
+        return request != null && Boolean.TRUE.equals(request.getDebug());
     }
 
     private enum QueryMode {
@@ -700,38 +1051,51 @@ public class QueryService {
         }
     }
 
-    private record DocSignal(String id, String title, double score) {
+    private record TimedSearchResult(RetrievalHits hits, double durationMs, String outcome) {
     }
 
-    private record TimedSearchResult(String payload, double durationMs, String outcome) {
+    private record StageCall(
+            String metricName,
+            RetrievalHits fallback,
+            long startNanos,
+            AtomicLong completedAtNanos,
+            CompletableFuture<RetrievalHits> future
+    ) {
     }
 
     private record BudgetConfig(long totalBudgetMs, long vectorBudgetMs, long lexicalBudgetMs) {
     }
 
-    private static class MergedSignal {
-        private final String id;
-        private String title = "";
-        private double lexicalScore;
-        private double semanticScore;
+    private record InFlightQuery(CompletableFuture<QueryResult> result, AtomicInteger followers) {
+    }
 
-        private MergedSignal(String id) {
-            this.id = id;
-        }
+    /**
+     * Receives the final status of a query: user traffic writes it to {@code query_logs}, warmup
+     * reads it back, and background refreshes drop it.
+     */
+    @FunctionalInterface
+    private interface QueryStatusSink {
+        void accept(String query, int topK, long startNanos, String status);
     }
 
-    private static BudgetConfig computeBudgetConfig(long requestedTotal, long requestedVector) {
+    /**
+     * Lexical and vector stages are fanned out together, so their budgets no longer have to add up
+     * to the total: each stage is clamped independently into {@code [MIN_STAGE_BUDGET_MS, total]}.
+     * A non-positive lexical budget means "use the whole total budget".
+     */
+    private static BudgetConfig computeBudgetConfig(long requestedTotal, long requestedVector, long requestedLexical) {
         long total = Math.max(100L, requestedTotal);
-        long vectorBudget = Math.max(MIN_STAGE_BUDGET_MS, Math.min(requestedVector, total - MIN_STAGE_BUDGET_MS));
-        long lexicalBudget = Math.max(MIN_STAGE_BUDGET_MS, total - vectorBudget);
-        if (vectorBudget + lexicalBudget > total) {
-            lexicalBudget = Math.max(MIN_STAGE_BUDGET_MS, total - vectorBudget);
-        }
+        long vectorBudget = clampStageBudget(requestedVector, total);
+        long lexicalBudget = requestedLexical <= 0 ? total : clampStageBudget(requestedLexical, total);
         return new BudgetConfig(total, vectorBudget, lexicalBudget);
     }
 
+    private static long clampStageBudget(long requested, long total) {
+        return Math.max(MIN_STAGE_BUDGET_MS, Math.min(requested, total));
+    }
+
     @FunctionalInterface
-    private interface UnsafeStringSupplier {
-        String get() throws Exception;
+    private interface UnsafeHitsSupplier {
+        RetrievalHits get() throws Exception;
     }
 }
@@ -0,0 +1,7 @@
+package com.hybrid.query.service;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveLexicalSearchClient {
+    Mono<RetrievalHits> searchHitsReactive(String query);
+}
@@ -0,0 +1,14 @@
+package com.hybrid.query.service;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveSemanticSearchClient {
+    Mono<RetrievalHits> searchHitsReactive(String query, Integer topK);
+
+    /**
+     * Variant that forwards the caller's {@link System#nanoTime()} deadline to the backend.
+     */
+    default Mono<RetrievalHits> searchHitsReactive(String query, Integer topK, long deadlineNanos) {
+        return searchHitsReactive(query, topK);
+    }
+}
@@ -3,91 +3,349 @@ package com.hybrid.query.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hybrid.query.model.QueryResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Redis layer of the result cache, through caching-service. Results are stored in an envelope
+ * with their stale time and compute time, and kept in Redis for the stale-while-revalidate grace
+ * window past the TTL, so every query-service instance can serve and refresh them the same way as
+ * the in-memory layer.
+ *
+ * <p>Writes are write-behind by default: a put only enqueues into a bounded buffer that coalesces
+ * by key, and a background flusher sends the buffer to {@code /cache/put-batch} in batches. A
+ * miss response therefore never waits on a cache-write round trip.
+ *
+ * <p>Negative results (no more than {@code query.cache.negative.max-results} hits) are stored with
+ * the short negative TTL and no grace window, matching the in-memory negative cache.
+ */
 @Service
-public class RedisQueryCacheClient {
+public class RedisQueryCacheClient implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisQueryCacheClient.class);
+    private static final Duration FLUSH_TIMEOUT = Duration.ofSeconds(2);
 
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
     private final boolean enabled;
     private final long ttlSeconds;
+    private final boolean swrEnabled;
+    private final long graceSeconds;
+    private final double earlyRefreshBeta;
+    private final boolean negativeEnabled;
+    private final long negativeTtlSeconds;
+    private final int negativeMaxResults;
+    private final CacheWriteBehindBuffer writeBuffer;
+    private final int maxBatch;
+    private final ScheduledExecutorService flusher;
+    private final Counter queuedCounter;
+    private final Counter coalescedCounter;
+    private final Counter droppedCounter;
+    private final Counter flushedCounter;
+    private final Counter failedCounter;
+    private final Counter negativeHitCounter;
 
     public RedisQueryCacheClient(
             @Value("${caching.url:http://caching-service:8096}") String cachingUrl,
             @Value("${query.cache.enabled:true}") boolean enabled,
             @Value("${query.cache.ttl-seconds:120}") long ttlSeconds,
-            ObjectMapper objectMapper
+            @Value("${query.cache.swr.enabled:true}") boolean swrEnabled,
+            @Value("${query.cache.swr.grace-seconds:30}") long graceSeconds,
+            @Value("${query.cache.swr.beta:1.0}") double earlyRefreshBeta,
+            @Value("${query.cache.write-behind.enabled:true}") boolean writeBehindEnabled,
+            @Value("${query.cache.write-behind.capacity:1024}") int writeBehindCapacity,
+            @Value("${query.cache.write-behind.max-batch:64}") int maxBatch,
+            @Value("${query.cache.write-behind.flush-interval-ms:20}") long flushIntervalMs,
+            @Value("${query.cache.negative.enabled:true}") boolean negativeEnabled,
+            @Value("${query.cache.negative.ttl-seconds:15}") long negativeTtlSeconds,
+            @Value("${query.cache.negative.max-results:0}") int negativeMaxResults,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
     ) {
         this.webClient = WebClient.builder().baseUrl(cachingUrl).build();
         this.objectMapper = objectMapper;
         this.enabled = enabled;
         this.ttlSeconds = Math.max(1L, ttlSeconds);
+        this.swrEnabled = swrEnabled;
+        this.graceSeconds = swrEnabled ? Math.max(0L, graceSeconds) : 0L;
+        this.earlyRefreshBeta = swrEnabled ? Math.max(0.0, earlyRefreshBeta) : 0.0;
+        this.negativeEnabled = negativeEnabled;
+        this.negativeTtlSeconds = Math.max(1L, negativeTtlSeconds);
+        this.negativeMaxResults = Math.max(0, negativeMaxResults);
+        this.maxBatch = Math.max(1, maxBatch);
+        if (enabled && writeBehindEnabled) {
+            this.writeBuffer = new CacheWriteBehindBuffer(writeBehindCapacity);
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "redis-cache-write-behind");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMs = Math.max(1L, flushIntervalMs);
+            flusher.scheduleWithFixedDelay(this::flushPending, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.writeBuffer = null;
+            this.flusher = null;
+        }
+        if (meterRegistry != null) {
+            this.queuedCounter = meterRegistry.counter("query_cache_write_queued_total");
+            this.coalescedCounter = meterRegistry.counter("query_cache_write_coalesced_total");
+            this.droppedCounter = meterRegistry.counter("query_cache_write_dropped_total");
+            this.flushedCounter = meterRegistry.counter("query_cache_write_flushed_total");
+            this.failedCounter = meterRegistry.counter("query_cache_write_failed_total");
+            this.negativeHitCounter = meterRegistry.counter("query_cache_negative_hit_total", "layer", "redis");
+            if (writeBuffer != null) {
+                Gauge.builder("query_cache_write_pending", writeBuffer, CacheWriteBehindBuffer::size).register(meterRegistry);
+            }
+        } else {
+            this.queuedCounter = null;
+            this.coalescedCounter = null;
+            this.droppedCounter = null;
+            this.flushedCounter = null;
+            this.failedCounter = null;
+            this.negativeHitCounter = null;
+        }
     }
 
-    public QueryResult get(String query, int topK, String mode, String filter) {
+    public CachedQuery get(String query, int topK, String mode, String filter, String fusion) {
+        return getReactive(query, topK, mode, filter, fusion).block();
+    }
+
+    public Mono<CachedQuery> getReactive(String query, int topK, String mode, String filter, String fusion) {
         if (!enabled) {
-            return null;
+            return Mono.empty();
+        }
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/cache/get")
+                        .queryParam("key", buildKey(query, topK, mode, filter, fusion))
+                        .build())
+                .retrieve()
+                .bodyToMono(String.class)
+                .flatMap(response -> Mono.justOrEmpty(decode(response)))
+                .flatMap(entry -> {
+                    long now = System.currentTimeMillis();
+                    boolean negative = entry.negative();
+                    if ((negative || !swrEnabled) && entry.isStale(now)) {
+                        return Mono.empty();
+                    }
+                    if (negative) {
+                        increment(negativeHitCounter, 1);
+                        return Mono.just(entry);
+                    }
+                    return Mono.just(entry.lookedUpAt(now, earlyRefreshBeta));
+                })
+                .onErrorResume(ex -> Mono.empty());
+    }
+
+    public void put(String query, int topK, String mode, String filter, String fusion, QueryResult result, long computeMillis) {
+        if (writeBuffer != null) {
+            enqueue(query, topK, mode, filter, fusion, result, computeMillis);
+            return;
         }
         try {
-            String response = webClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/cache/get")
-                            .queryParam("key", buildKey(query, topK, mode, filter))
-                            .build())
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-            if (response == null || response.isBlank() || "null".equals(response)) {
-                return null;
-            }
+            putReactive(query, topK, mode, filter, fusion, result, computeMillis).block();
+        } catch (Exception ignored) {
+        }
+    }
 
-            JsonNode root = objectMapper.readTree(response);
-            if (root.has("@class") && root.has("message")) {
-                return objectMapper.convertValue(root, QueryResult.class);
-            }
-            if (root.has("value")) {
-                return objectMapper.convertValue(root.path("value"), QueryResult.class);
-            }
-            return objectMapper.convertValue(root, QueryResult.class);
-        } catch (Exception ex) {
-            return null;
+    public Mono<Void> putReactive(
+            String query,
+            int topK,
+            String mode,
+            String filter,
+            String fusion,
+            QueryResult result,
+            long computeMillis
+    ) {
+        if (!enabled || result == null) {
+            return Mono.empty();
         }
+        if (writeBuffer != null) {
+            return Mono.fromRunnable(() -> enqueue(query, topK, mode, filter, fusion, result, computeMillis));
+        }
+        boolean negative = isNegative(result);
+        return webClient.post()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/cache/put")
+                        .queryParam("key", buildKey(query, topK, mode, filter, fusion))
+                        .queryParam("ttl", retentionSeconds(negative))
+                        .build())
+                .bodyValue(envelope(result, computeMillis, negative))
+                .retrieve()
+                .bodyToMono(String.class)
+                .then()
+                .onErrorResume(ex -> Mono.empty());
     }
 
-    public void put(String query, int topK, String mode, String filter, QueryResult result) {
+    private void enqueue(
+            String query,
+            int topK,
+            String mode,
+            String filter,
+            String fusion,
+            QueryResult result,
+            long computeMillis
+    ) {
         if (!enabled || result == null) {
             return;
         }
+        boolean negative = isNegative(result);
+        CacheWriteBehindBuffer.PendingWrite write = new CacheWriteBehindBuffer.PendingWrite(
+                buildKey(query, topK, mode, filter, fusion),
+                retentionSeconds(negative),
+                envelope(result, computeMillis, negative)
+        );
+        switch (writeBuffer.offer(write)) {
+            case QUEUED -> increment(queuedCounter, 1);
+            case COALESCED -> increment(coalescedCounter, 1);
+            case DROPPED -> increment(droppedCounter, 1);
+        }
+    }
+
+    /**
+     * Sends pending writes in batches of up to {@code max-batch} until the buffer holds less than a
+     * full batch. A failed batch is dropped: the entries are only a cache and the next miss for each
+     * key writes it again.
+     */
+    private void flushPending() {
+        try {
+            List<CacheWriteBehindBuffer.PendingWrite> batch;
+            do {
+                batch = writeBuffer.drain(maxBatch);
+                if (batch.isEmpty()) {
+                    return;
+                }
+                sendBatch(batch);
+            } while (batch.size() == maxBatch);
+        } catch (RuntimeException ex) {
+            // Keep the scheduled flusher alive whatever happens to one batch.
+            log.warn("event=query_cache_write_flush_failed error=\"{}\"", ex.getMessage());
+        }
+    }
+
+    private void sendBatch(List<CacheWriteBehindBuffer.PendingWrite> batch) {
         try {
             webClient.post()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/cache/put")
-                            .queryParam("key", buildKey(query, topK, mode, filter))
-                            .queryParam("ttl", ttlSeconds)
-                            .build())
-                    .bodyValue(result)
+                    .uri("/cache/put-batch")
+                    .bodyValue(batch)
                     .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-        } catch (Exception ignored) {
+                    .toBodilessEntity()
+                    .block(FLUSH_TIMEOUT);
+            increment(flushedCounter, batch.size());
+        } catch (RuntimeException ex) {
+            increment(failedCounter, batch.size());
+            log.warn("event=query_cache_write_batch_failed writes={} error=\"{}\"", batch.size(), ex.getMessage());
+        }
+    }
+
+    private Map<String, Object> envelope(QueryResult result, long computeMillis, boolean negative) {
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("value", result);
+        long entryTtlSeconds = negative ? negativeTtlSeconds : ttlSeconds;
+        envelope.put("staleAtMillis", System.currentTimeMillis() + entryTtlSeconds * 1000L);
+        envelope.put("computeMillis", computeMillis);
+        envelope.put("negative", negative);
+        return envelope;
+    }
+
+    /**
+     * Classifies a result as it is written. Only full computed results are written here, so the
+     * classification travels with the entry and truncated views read from it keep it.
+     */
+    private boolean isNegative(QueryResult result) {
+        return negativeEnabled && result.getRankedResults().size() <= negativeMaxResults;
+    }
+
+    /**
+     * Redis TTL: negative entries are dropped when they go stale, others after the grace window.
+     */
+    private long retentionSeconds(boolean negative) {
+        return negative ? negativeTtlSeconds : ttlSeconds + graceSeconds;
+    }
+
+    private static void increment(Counter counter, int amount) {
+        if (counter != null) {
+            counter.increment(amount);
+        }
+    }
+
+    /**
+     * Stops the flusher and sends whatever is still buffered.
+     */
+    @Override
+    public void destroy() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(FLUSH_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flushPending();
+    }
+
+    private CachedQuery decode(String response) {
+        if (response == null || response.isBlank() || "null".equals(response)) {
+            return null;
+        }
+        try {
+            JsonNode root = objectMapper.readTree(response);
+            if (root.has("staleAtMillis") && root.has("value")) {
+                return new CachedQuery(
+                        objectMapper.convertValue(root.path("value"), QueryResult.class),
+                        root.path("staleAtMillis").asLong(),
+                        root.path("computeMillis").asLong(),
+                        root.path("negative").asBoolean(false),
+                        false
+                );
+            }
+            // Entries written before the envelope carry no timing; treat them as freshly stored.
+            return CachedQuery.computed(legacyResult(root), ttlSeconds * 1000L, 0L, false);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private QueryResult legacyResult(JsonNode root) {
+        if (root.has("@class") && root.has("message")) {
+            return objectMapper.convertValue(root, QueryResult.class);
+        }
+        if (root.has("value")) {
+            return objectMapper.convertValue(root.path("value"), QueryResult.class);
         }
+        return objectMapper.convertValue(root, QueryResult.class);
     }
 
-    private static String buildKey(String query, int topK, String mode, String filter) {
+    private static String buildKey(String query, int topK, String mode, String filter, String fusion) {
         String q = Optional.ofNullable(query).orElse("");
         String encoded = Base64.getUrlEncoder().withoutPadding()
                 .encodeToString(q.getBytes(StandardCharsets.UTF_8));
         return "hybrid:query:" + encoded
                 + ":topk:" + topK
                 + ":mode:" + normalize(mode)
-                + ":filter:" + normalize(filter);
+                + ":filter:" + normalize(filter)
+                + ":fusion:" + normalize(fusion);
     }
 
     private static String normalize(String value) {
@@ -0,0 +1,168 @@
+package com.hybrid.query.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Hedges a retrieval call: if the primary attempt has not produced a value after the hedge delay,
+ * a second attempt is started (against the secondary endpoint when one is configured) and the
+ * first value wins. {@link Mono#firstWithValue} cancels the losing attempt, which aborts its HTTP
+ * exchange or gRPC call.
+ *
+ * <p>The delay is the configured percentile of recent successful attempt latencies, falling back
+ * to {@code delay-ms} until enough samples exist. Hedges are paid from a token budget that earns
+ * {@code max-ratio} of a token per call, so during a brownout hedging adds at most that fraction
+ * of extra load instead of doubling it.
+ */
+final class RetrievalHedger {
+
+    static final int PRIMARY = 0;
+    static final int HEDGE = 1;
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final long MIN_SAMPLES = 50L;
+    private static final long REFRESH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final long MIN_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long TOKEN = 1_000L;
+    private static final long MAX_TOKENS = 10L * TOKEN;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long fallbackDelayNanos;
+    private final long tokensPerCall;
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 2);
+    private final AtomicLong nextRefreshNanos = new AtomicLong();
+    private final AtomicLong tokens = new AtomicLong(MAX_TOKENS);
+    private final Counter firedCounter;
+    private final Counter wonCounter;
+    private final Counter budgetExhaustedCounter;
+    private Histogram recycled;
+    private volatile long delayNanos;
+
+    RetrievalHedger(
+            String backend,
+            boolean enabled,
+            double percentile,
+            long delayMs,
+            double maxRatio,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.percentile = Math.min(99.9, Math.max(50.0, percentile));
+        this.fallbackDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, delayMs));
+        this.tokensPerCall = Math.round(Math.min(1.0, Math.max(0.0, maxRatio)) * TOKEN);
+        this.delayNanos = fallbackDelayNanos;
+        this.nextRefreshNanos.set(System.nanoTime() + REFRESH_INTERVAL_NANOS);
+        if (meterRegistry != null) {
+            this.firedCounter = meterRegistry.counter("retrieval_hedge_fired_total", "backend", backend);
+            this.wonCounter = meterRegistry.counter("retrieval_hedge_won_total", "backend", backend);
+            this.budgetExhaustedCounter = meterRegistry.counter("retrieval_hedge_budget_exhausted_total", "backend", backend);
+            if (enabled) {
+                Gauge.builder("retrieval_hedge_delay_ms", this, h -> h.delayNanos / 1_000_000.0)
+                        .tag("backend", backend)
+                        .register(meterRegistry);
+            }
+        } else {
+            this.firedCounter = null;
+            this.wonCounter = null;
+            this.budgetExhaustedCounter = null;
+        }
+    }
+
+    boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs {@code attempt.apply(PRIMARY)} and, once the hedge delay passes without a value and the
+     * budget allows it, {@code attempt.apply(HEDGE)}. Returns the first value either produces.
+     */
+    <T> Mono<T> hedge(IntFunction<Mono<T>> attempt) {
+        if (!enabled) {
+            return attempt.apply(PRIMARY);
+        }
+        return Mono.defer(() -> {
+            deposit();
+            Mono<T> primary = timed(attempt.apply(PRIMARY), false);
+            Mono<T> hedged = Mono.delay(Duration.ofNanos(delayNanos))
+                    .flatMap(tick -> {
+                        if (!tryWithdraw()) {
+                            increment(budgetExhaustedCounter);
+                            return Mono.<T>empty();
+                        }
+                        increment(firedCounter);
+                        return timed(attempt.apply(HEDGE), true);
+                    });
+            return Mono.firstWithValue(primary, hedged);
+        });
+    }
+
+    private <T> Mono<T> timed(Mono<T> call, boolean hedge) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doOnNext(value -> {
+                record(System.nanoTime() - start);
+                if (hedge) {
+                    increment(wonCounter);
+                }
+            });
+        });
+    }
+
+    private void record(long durationNanos) {
+        long micros = Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(1L, TimeUnit.NANOSECONDS.toMicros(durationNanos)));
+        recorder.recordValue(micros);
+        long now = System.nanoTime();
+        long next = nextRefreshNanos.get();
+        if (now - next >= 0 && nextRefreshNanos.compareAndSet(next, now + REFRESH_INTERVAL_NANOS)) {
+            refreshDelay();
+        }
+    }
+
+    private synchronized void refreshDelay() {
+        Histogram interval = recorder.getIntervalHistogram(recycled);
+        recycled = interval;
+        if (interval.getTotalCount() < MIN_SAMPLES) {
+            // Too quiet to trust a percentile; keep the last delay rather than snapping back.
+            return;
+        }
+        long micros = interval.getValueAtPercentile(percentile);
+        delayNanos = Math.max(MIN_DELAY_NANOS, TimeUnit.MICROSECONDS.toNanos(micros));
+    }
+
+    private void deposit() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current >= MAX_TOKENS) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, Math.min(MAX_TOKENS, current + tokensPerCall)));
+    }
+
+    private boolean tryWithdraw() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.hybrid.query.service;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Typed result of one retrieval stage: parallel arrays of document id, title, score and the
+ * document's 1-based rank in the upstream response. Scores stay unboxed and a whole page costs a
+ * handful of arrays instead of one object per document.
+ *
+ * <p>The upstream body is not part of the contract. Transports attach a renderer that produces it
+ * only when a caller actually asks for the raw payload.
+ */
+public final class RetrievalHits {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private String[] ids;
+    private String[] titles;
+    private double[] scores;
+    private int[] ranks;
+    private int size;
+    private Supplier<String> rawPayload = () -> null;
+    private boolean readOnly;
+
+    public RetrievalHits() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RetrievalHits(int capacity) {
+        int initial = Math.max(1, capacity);
+        this.ids = new String[initial];
+        this.titles = new String[initial];
+        this.scores = new double[initial];
+        this.ranks = new int[initial];
+    }
+
+    /**
+     * Returns a read-only instance with no hits, safe to share between requests: {@link #add},
+     * {@link #setScore} and {@link #withRawPayload} reject it.
+     */
+    public static RetrievalHits empty(String rawPayload) {
+        RetrievalHits hits = new RetrievalHits(1).withRawPayload(() -> rawPayload);
+        hits.readOnly = true;
+        return hits;
+    }
+
+    public void add(String id, String title, double score) {
+        add(id, title, score, size + 1);
+    }
+
+    public void add(String id, String title, double score, int rank) {
+        checkWritable();
+        if (size == ids.length) {
+            int grown = size * 2;
+            ids = Arrays.copyOf(ids, grown);
+            titles = Arrays.copyOf(titles, grown);
+            scores = Arrays.copyOf(scores, grown);
+            ranks = Arrays.copyOf(ranks, grown);
+        }
+        ids[size] = id;
+        titles[size] = title == null ? "" : title;
+        scores[size] = score;
+        ranks[size] = rank;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String id(int index) {
+        return ids[index];
+    }
+
+    public String title(int index) {
+        return titles[index];
+    }
+
+    public double score(int index) {
+        return scores[index];
+    }
+
+    public int rank(int index) {
+        return ranks[index];
+    }
+
+    void setScore(int index, double score) {
+        checkWritable();
+        scores[index] = score;
+    }
+
+    public double maxScore(double whenEmpty) {
+        if (size == 0) {
+            return whenEmpty;
+        }
+        double max = scores[0];
+        for (int i = 1; i < size; i++) {
+            max = Math.max(max, scores[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Sets how the upstream payload is produced for debug output; the renderer is not invoked here.
+     */
+    public RetrievalHits withRawPayload(Supplier<String> renderer) {
+        checkWritable();
+        this.rawPayload = renderer == null ? () -> null : renderer;
+        return this;
+    }
+
+    public String rawPayload() {
+        return rawPayload.get();
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("empty RetrievalHits are shared and read-only");
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.hybrid.query.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming extraction of {@link RetrievalHits} from raw Solr and vector-service response bodies.
+ * Only {@code id}/{@code documentId}, {@code title}/{@code title_t} and the score are read; every
+ * other field is skipped at token level, so no {@code JsonNode} tree or decoded body is built.
+ * A malformed body yields no hits, matching the old tree-based parsing. The body itself is only
+ * decoded if the hits' raw payload is requested.
+ */
+final class RetrievalSignalParser {
+    private static final RetrievalSignalParser SHARED = new RetrievalSignalParser(new JsonFactory());
+
+    private final JsonFactory jsonFactory;
+
+    RetrievalSignalParser(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    static RetrievalSignalParser shared() {
+        return SHARED;
+    }
+
+    RetrievalHits parseSolr(byte[] body) {
+        return readSolr(body).withRawPayload(() -> decode(body));
+    }
+
+    RetrievalHits parseVector(byte[] body) {
+        return readVector(body).withRawPayload(() -> decode(body));
+    }
+
+    private RetrievalHits readSolr(byte[] body) {
+        RetrievalHits docs = new RetrievalHits();
+        if (body == null || body.length == 0) {
+            return docs;
+        }
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return docs;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("response".equals(field) && value == JsonToken.START_OBJECT) {
+                    docs = readSolrResponse(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return docs;
+        } catch (IOException ex) {
+            return new RetrievalHits();
+        }
+    }
+
+    private RetrievalHits readVector(byte[] body) {
+        RetrievalHits docs = new RetrievalHits();
+        if (body == null || body.length == 0) {
+            return docs;
+        }
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return docs;
+            }
+            int position = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    return new RetrievalHits();
+                }
+                if (token == JsonToken.START_OBJECT) {
+                    readVectorHit(parser, docs, position + 1);
+                } else {
+                    parser.skipChildren();
+                }
+                position++;
+            }
+            return docs;
+        } catch (IOException ex) {
+            return new RetrievalHits();
+        }
+    }
+
+    private static RetrievalHits readSolrResponse(JsonParser parser) throws IOException {
+        RetrievalHits docs = new RetrievalHits();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("docs".equals(field) && value == JsonToken.START_ARRAY) {
+                docs = readSolrDocs(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return docs;
+    }
+
+    private static RetrievalHits readSolrDocs(JsonParser parser) throws IOException {
+        RetrievalHits docs = new RetrievalHits();
+        // Docs without a usable score are ranked by position, which needs the array length first.
+        int[] unscoredSlots = new int[0];
+        int[] unscoredPositions = new int[0];
+        int unscored = 0;
+        int position = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new IOException("Unexpected end of Solr docs array");
+            }
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+            } else if (readSolrDoc(parser, docs, position + 1) && Double.isNaN(docs.score(docs.size() - 1))) {
+                if (unscored == unscoredSlots.length) {
+                    unscoredSlots = Arrays.copyOf(unscoredSlots, Math.max(8, unscored * 2));
+                    unscoredPositions = Arrays.copyOf(unscoredPositions, unscoredSlots.length);
+                }
+                unscoredSlots[unscored] = docs.size() - 1;
+                unscoredPositions[unscored] = position;
+                unscored++;
+            }
+            position++;
+        }
+        for (int i = 0; i < unscored; i++) {
+            docs.setScore(unscoredSlots[i], Math.max(1.0, (double) (position - unscoredPositions[i])));
+        }
+        return docs;
+    }
+
+    private static boolean readSolrDoc(JsonParser parser, RetrievalHits docs, int rank) throws IOException {
+        String id = null;
+        String title = "";
+        String fallbackTitle = "";
+        double score = Double.NaN;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id":
+                    id = readScalarText(parser, value, null);
+                    break;
+                case "title":
+                    title = readTitle(parser, value);
+                    break;
+                case "title_t":
+                    fallbackTitle = readTitle(parser, value);
+                    break;
+                case "score":
+                    score = readSolrScore(parser, value);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        if (id == null || id.isBlank()) {
+            return false;
+        }
+        docs.add(id, title.isBlank() ? fallbackTitle : title, score, rank);
+        return true;
+    }
+
+    private static void readVectorHit(JsonParser parser, RetrievalHits docs, int rank) throws IOException {
+        String id = null;
+        String title = "";
+        double score = Double.NaN;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "documentId":
+                    id = readScalarText(parser, value, null);
+                    break;
+                case "title":
+                    title = readScalarText(parser, value, "");
+                    break;
+                case "similarityScore":
+                    if (value != null && value.isNumeric()) {
+                        score = parser.getDoubleValue();
+                    } else {
+                        score = Double.NaN;
+                        parser.skipChildren();
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        if (id == null || id.isBlank() || Double.isNaN(score)) {
+            return;
+        }
+        docs.add(id, title, score, rank);
+    }
+
+    private static String readScalarText(JsonParser parser, JsonToken value, String whenNull) throws IOException {
+        if (value == null || value == JsonToken.VALUE_NULL) {
+            return whenNull;
+        }
+        if (value.isStructStart()) {
+            parser.skipChildren();
+            return "";
+        }
+        return parser.getText();
+    }
+
+    private static String readTitle(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return "";
+        }
+        String title = "";
+        JsonToken element = parser.nextToken();
+        if (element == JsonToken.VALUE_STRING) {
+            title = parser.getText();
+        }
+        // Multi-valued title: only the first value is used.
+        while (element != JsonToken.END_ARRAY) {
+            if (element == null) {
+                throw new IOException("Unexpected end of title array");
+            }
+            parser.skipChildren();
+            element = parser.nextToken();
+        }
+        return title;
+    }
+
+    private static double readSolrScore(JsonParser parser, JsonToken value) throws IOException {
+        if (value != null && value.isNumeric()) {
+            return parser.getDoubleValue();
+        }
+        if (value == JsonToken.VALUE_STRING) {
+            try {
+                return Double.parseDouble(parser.getText());
+            } catch (NumberFormatException ignored) {
+                return Double.NaN;
+            }
+        }
+        parser.skipChildren();
+        return Double.NaN;
+    }
+
+    private static String decode(byte[] body) {
+        return body == null ? null : new String(body, StandardCharsets.UTF_8);
+    }
+}
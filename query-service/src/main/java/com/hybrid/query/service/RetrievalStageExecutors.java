@@ -0,0 +1,79 @@
+package com.hybrid.query.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RetrievalStageExecutors implements DisposableBean {
+
+    private static final int DEFAULT_THREADS = 16;
+    private static final int DEFAULT_QUEUE_CAPACITY = 64;
+    private static final int DEFAULT_REFRESH_THREADS = 2;
+    private static final int DEFAULT_REFRESH_QUEUE_CAPACITY = 16;
+
+    private final StageBulkhead lexical;
+    private final StageBulkhead vector;
+    private final StageBulkhead refresh;
+
+    public RetrievalStageExecutors() {
+        this(
+                null,
+                DEFAULT_THREADS,
+                DEFAULT_QUEUE_CAPACITY,
+                DEFAULT_THREADS,
+                DEFAULT_QUEUE_CAPACITY,
+                DEFAULT_REFRESH_THREADS,
+                DEFAULT_REFRESH_QUEUE_CAPACITY,
+                false
+        );
+    }
+
+    @Autowired
+    public RetrievalStageExecutors(
+            MeterRegistry meterRegistry,
+            @Value("${query.execution.lexical-pool.threads:16}") int lexicalThreads,
+            @Value("${query.execution.lexical-pool.queue-capacity:64}") int lexicalQueueCapacity,
+            @Value("${query.execution.vector-pool.threads:16}") int vectorThreads,
+            @Value("${query.execution.vector-pool.queue-capacity:64}") int vectorQueueCapacity,
+            @Value("${query.execution.refresh-pool.threads:2}") int refreshThreads,
+            @Value("${query.execution.refresh-pool.queue-capacity:16}") int refreshQueueCapacity,
+            @Value("${query.execution.virtual-threads.enabled:false}") boolean virtualThreads
+    ) {
+        if (virtualThreads) {
+            // No pool to size: the same capacity now bounds concurrently admitted virtual threads.
+            this.lexical = StageBulkhead.virtual("lexical", lexicalThreads + lexicalQueueCapacity, meterRegistry);
+            this.vector = StageBulkhead.virtual("vector", vectorThreads + vectorQueueCapacity, meterRegistry);
+            this.refresh = StageBulkhead.virtual("refresh", refreshThreads + refreshQueueCapacity, meterRegistry);
+        } else {
+            this.lexical = new StageBulkhead("lexical", lexicalThreads, lexicalQueueCapacity, meterRegistry);
+            this.vector = new StageBulkhead("vector", vectorThreads, vectorQueueCapacity, meterRegistry);
+            this.refresh = new StageBulkhead("refresh", refreshThreads, refreshQueueCapacity, meterRegistry);
+        }
+    }
+
+    public StageBulkhead lexical() {
+        return lexical;
+    }
+
+    public StageBulkhead vector() {
+        return vector;
+    }
+
+    /**
+     * Background cache refreshes. Kept apart from the retrieval stages so that a refresh waiting on
+     * its own stages never holds a thread those stages need.
+     */
+    public StageBulkhead refresh() {
+        return refresh;
+    }
+
+    @Override
+    public void destroy() {
+        lexical.shutdown();
+        vector.shutdown();
+        refresh.shutdown();
+    }
+}
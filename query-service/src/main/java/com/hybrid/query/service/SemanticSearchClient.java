@@ -1,5 +1,36 @@
 package com.hybrid.query.service;
 
+import java.nio.charset.StandardCharsets;
+
 public interface SemanticSearchClient {
     String search(String query, Integer topK);
+
+    /**
+     * Raw response body, for callers that parse it themselves without decoding it to a String.
+     */
+    default byte[] searchBytes(String query, Integer topK) {
+        String body = search(query, topK);
+        return body == null ? null : body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Typed hits consumed by fusion. Transports that already have structured hits build them
+     * directly; the JSON form is only rendered if the hits' raw payload is requested.
+     */
+    default RetrievalHits searchHits(String query, Integer topK) {
+        return RetrievalSignalParser.shared().parseVector(searchBytes(query, topK));
+    }
+
+    /**
+     * Deadline-aware variants. {@code deadlineNanos} is the {@link System#nanoTime()} instant after
+     * which the caller stops waiting; clients that can forward it shorten their timeouts and tell the
+     * backend, others ignore it.
+     */
+    default byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+        return searchBytes(query, topK);
+    }
+
+    default RetrievalHits searchHits(String query, Integer topK, long deadlineNanos) {
+        return RetrievalSignalParser.shared().parseVector(searchBytes(query, topK, deadlineNanos));
+    }
 }
@@ -1,34 +1,75 @@
 package com.hybrid.query.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+
 @Service
-public class SolrLexicalSearchClient implements LexicalSearchClient {
+public class SolrLexicalSearchClient implements LexicalSearchClient, ReactiveLexicalSearchClient {
 
     private final WebClient webClient;
+    private final WebClient hedgeWebClient;
+    private final RetrievalHedger hedger;
     private final long requestTimeoutMs;
 
     public SolrLexicalSearchClient(String solrUrl) {
         this(solrUrl, 120L);
     }
 
+    public SolrLexicalSearchClient(String solrUrl, long requestTimeoutMs) {
+        this(solrUrl, requestTimeoutMs, false, "", 95.0, 50L, 0.1, null);
+    }
+
     @Autowired
     public SolrLexicalSearchClient(
             @Value("${solr.url}") String solrUrl,
-            @Value("${solr.request-timeout-ms:120}") long requestTimeoutMs
+            @Value("${solr.request-timeout-ms:120}") long requestTimeoutMs,
+            @Value("${solr.hedge.enabled:false}") boolean hedgeEnabled,
+            @Value("${solr.hedge.url:}") String hedgeUrl,
+            @Value("${solr.hedge.percentile:95}") double hedgePercentile,
+            @Value("${solr.hedge.delay-ms:50}") long hedgeDelayMs,
+            @Value("${solr.hedge.max-ratio:0.1}") double hedgeMaxRatio,
+            MeterRegistry meterRegistry
     ) {
         this.webClient = WebClient.builder().baseUrl(solrUrl).build();
+        // Without a replica URL the hedge goes to the same endpoint, which still escapes a stalled connection.
+        this.hedgeWebClient = hedgeUrl == null || hedgeUrl.isBlank()
+                ? webClient
+                : WebClient.builder().baseUrl(hedgeUrl).build();
+        this.hedger = new RetrievalHedger("solr", hedgeEnabled, hedgePercentile, hedgeDelayMs, hedgeMaxRatio, meterRegistry);
         this.requestTimeoutMs = Math.max(50L, requestTimeoutMs);
     }
 
     @Override
     public String search(String query) {
+        byte[] body = searchBytes(query);
+        return body == null ? null : new String(body, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] searchBytes(String query) {
+        return fetch(query).block();
+    }
+
+    @Override
+    public Mono<RetrievalHits> searchHitsReactive(String query) {
+        return fetch(query).map(RetrievalSignalParser.shared()::parseSolr);
+    }
+
+    private Mono<byte[]> fetch(String query) {
+        return hedger.hedge(attempt -> fetch(attempt == RetrievalHedger.PRIMARY ? webClient : hedgeWebClient, query));
+    }
+
+    private Mono<byte[]> fetch(WebClient client, String query) {
         String lexicalQuery = (query == null || query.isBlank()) ? "*:*" : query.trim();
-        return webClient.get()
+        return client.get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/select")
                         .queryParam("defType", "edismax")
@@ -40,8 +81,8 @@ public class SolrLexicalSearchClient implements LexicalSearchClient {
                         .queryParam("wt", "json")
                 .build())
                 .retrieve()
-                .bodyToMono(String.class)
-                .block(Duration.ofMillis(requestTimeoutMs));
+                .bodyToMono(byte[].class)
+                .timeout(Duration.ofMillis(requestTimeoutMs));
     }
 
     @Override
@@ -60,4 +101,20 @@ public class SolrLexicalSearchClient implements LexicalSearchClient {
                 .bodyToMono(String.class)
                 .block(Duration.ofMillis(requestTimeoutMs));
     }
+
+    @Override
+    public String indexVersion() {
+        JsonNode body = webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/admin/luke")
+                        .queryParam("show", "index")
+                        .queryParam("numTerms", 0)
+                        .queryParam("wt", "json")
+                .build())
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .block(Duration.ofMillis(requestTimeoutMs));
+        JsonNode version = body == null ? null : body.path("index").path("version");
+        return version == null || version.isMissingNode() ? null : version.asText();
+    }
 }
@@ -0,0 +1,223 @@
+package com.hybrid.query.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Executor dedicated to one retrieval stage, so a stalled backend can only exhaust its own capacity.
+ * Work beyond the bulkhead's capacity is rejected immediately instead of queueing behind the stall.
+ *
+ * <p>The platform variant is a fixed pool with a bounded queue. The virtual variant starts a virtual
+ * thread per task and bounds concurrency with a semaphore instead.
+ *
+ * <p>Futures returned by {@link #submit} interrupt their worker on {@code cancel(true)}, so an
+ * abandoned stage stops its blocking client call instead of running on after the caller gave up.
+ */
+public final class StageBulkhead {
+
+    /**
+     * Name prefix of every stage worker thread, platform or virtual.
+     */
+    public static final String THREAD_NAME_PREFIX = "query-stage-";
+
+    private final String stage;
+    private final Executor executor;
+    private final ThreadPoolExecutor pool;
+    private final Semaphore permits;
+    private final Timer virtualTaskTimer;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public StageBulkhead(String stage, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this(stage, platformPool(stage, threads, queueCapacity), null, meterRegistry);
+    }
+
+    private StageBulkhead(String stage, ThreadPoolExecutor pool, Semaphore permits, MeterRegistry meterRegistry) {
+        this.stage = stage;
+        this.pool = pool;
+        this.permits = permits;
+        this.executor = pool != null ? pool : new VirtualThreadTaskExecutor(THREAD_NAME_PREFIX + stage + "-");
+        this.virtualTaskTimer = pool == null && meterRegistry != null
+                ? Timer.builder("virtual_thread_task_ms").tag("stage", stage).register(meterRegistry)
+                : null;
+        if (meterRegistry != null) {
+            Gauge.builder("query_stage_executor_active_threads", this, StageBulkhead::activeCount)
+                    .tag("stage", stage)
+                    .register(meterRegistry);
+            Gauge.builder("query_stage_executor_queued_tasks", this, StageBulkhead::queuedCount)
+                    .tag("stage", stage)
+                    .register(meterRegistry);
+            FunctionCounter.builder("query_stage_executor_rejected_total", rejected, AtomicLong::get)
+                    .tag("stage", stage)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Bulkhead that runs every task on its own virtual thread, admitting at most
+     * {@code maxConcurrency} tasks at a time. Requires a JDK 21 runtime.
+     */
+    public static StageBulkhead virtual(String stage, int maxConcurrency, MeterRegistry meterRegistry) {
+        return new StageBulkhead(stage, null, new Semaphore(Math.max(1, maxConcurrency)), meterRegistry);
+    }
+
+    /**
+     * Runs the task on this stage's executor. When the bulkhead is full the returned future is
+     * already failed with {@link RejectedExecutionException}. Cancelling the future with
+     * {@code mayInterruptIfRunning} interrupts the task if it has started.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        if (permits != null && !permits.tryAcquire()) {
+            rejected.incrementAndGet();
+            return CompletableFuture.failedFuture(new RejectedExecutionException("stage " + stage + " is saturated"));
+        }
+        InterruptibleFuture<T> future = new InterruptibleFuture<>();
+        Supplier<T> body = permits == null ? task : tracked(task);
+        try {
+            executor.execute(() -> {
+                if (!future.run(body) && permits != null) {
+                    // Cancelled while queued: the tracked body never ran to release its permit.
+                    permits.release();
+                }
+            });
+            return future;
+        } catch (RejectedExecutionException ex) {
+            if (permits != null) {
+                permits.release();
+            }
+            rejected.incrementAndGet();
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    public String stage() {
+        return stage;
+    }
+
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private <T> Supplier<T> tracked(Supplier<T> task) {
+        return () -> {
+            long start = System.nanoTime();
+            inFlight.incrementAndGet();
+            try {
+                return task.get();
+            } finally {
+                inFlight.decrementAndGet();
+                permits.release();
+                if (virtualTaskTimer != null) {
+                    virtualTaskTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+        };
+    }
+
+    private double activeCount() {
+        return pool != null ? pool.getActiveCount() : inFlight.get();
+    }
+
+    private double queuedCount() {
+        return pool != null ? pool.getQueue().size() : 0;
+    }
+
+    private static ThreadPoolExecutor platformPool(String stage, int threads, int queueCapacity) {
+        int poolSize = Math.max(1, threads);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                new StageThreadFactory(stage),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class InterruptibleFuture<T> extends CompletableFuture<T> {
+        private Thread runner;
+
+        /**
+         * Runs {@code body} on the calling thread unless the future is already done. Returns
+         * whether the body ran.
+         */
+        private boolean run(Supplier<T> body) {
+            if (!bind(Thread.currentThread())) {
+                return false;
+            }
+            try {
+                complete(body.get());
+            } catch (Throwable ex) {
+                completeExceptionally(ex);
+            } finally {
+                unbind();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled && mayInterruptIfRunning) {
+                interruptRunner();
+            }
+            return cancelled;
+        }
+
+        private synchronized boolean bind(Thread thread) {
+            if (isDone()) {
+                return false;
+            }
+            runner = thread;
+            return true;
+        }
+
+        private synchronized void unbind() {
+            runner = null;
+            // A cancel that raced with completion must not leak its interrupt into the next pooled task.
+            Thread.interrupted();
+        }
+
+        private synchronized void interruptRunner() {
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+    }
+
+    private static final class StageThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        private StageThreadFactory(String stage) {
+            this.prefix = THREAD_NAME_PREFIX + stage + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -6,8 +6,11 @@ import com.hybrid.vector.contract.VectorHit;
 import com.hybrid.vector.contract.VectorSearchRequest;
 import com.hybrid.vector.contract.VectorSearchResponse;
 import com.hybrid.vector.contract.VectorSearchServiceGrpc;
+import io.grpc.Context;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,21 +18,32 @@ import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.TimeUnit;
 import java.time.Duration;
 
 @Service
-public class VectorSemanticSearchClient implements SemanticSearchClient, DisposableBean {
+public class VectorSemanticSearchClient implements SemanticSearchClient, ReactiveSemanticSearchClient, DisposableBean {
 
     private static final Logger log = LoggerFactory.getLogger(VectorSemanticSearchClient.class);
+    private static final byte[] EMPTY_RESULT = "[]".getBytes(StandardCharsets.UTF_8);
+    private static final long NO_DEADLINE = Long.MIN_VALUE;
+    static final String DEADLINE_HEADER = "X-Request-Deadline-Ms";
     private final WebClient webClient;
+    private final WebClient hedgeWebClient;
     private final boolean grpcEnabled;
     private final ManagedChannel grpcChannel;
+    private final ManagedChannel hedgeGrpcChannel;
     private final VectorSearchServiceGrpc.VectorSearchServiceBlockingStub vectorSearchStub;
+    private final VectorSearchServiceGrpc.VectorSearchServiceStub vectorSearchAsyncStub;
+    private final VectorSearchServiceGrpc.VectorSearchServiceStub hedgeAsyncStub;
+    private final RetrievalHedger hedger;
     private final ObjectMapper objectMapper;
     private final long requestTimeoutMs;
     private final long grpcDeadlineMs;
@@ -38,6 +52,19 @@ public class VectorSemanticSearchClient implements SemanticSearchClient, Disposa
         this(vectorUrl, false, "vector-service", 9094, 120L, 600L, new ObjectMapper());
     }
 
+    public VectorSemanticSearchClient(
+            String vectorUrl,
+            boolean grpcEnabled,
+            String grpcHost,
+            int grpcPort,
+            long requestTimeoutMs,
+            long grpcDeadlineMs,
+            ObjectMapper objectMapper
+    ) {
+        this(vectorUrl, grpcEnabled, grpcHost, grpcPort, requestTimeoutMs, grpcDeadlineMs,
+                false, "", "", 95.0, 50L, 0.1, objectMapper, null);
+    }
+
     @Autowired
     public VectorSemanticSearchClient(
             @Value("${vector.url}") String vectorUrl,
@@ -46,9 +73,20 @@ public class VectorSemanticSearchClient implements SemanticSearchClient, Disposa
             @Value("${vector.grpc.port:9094}") int grpcPort,
             @Value("${vector.request-timeout-ms:120}") long requestTimeoutMs,
             @Value("${vector.grpc.timeout-ms:${vector.request-timeout-ms:120}}") long grpcDeadlineMs,
-            ObjectMapper objectMapper
+            @Value("${vector.hedge.enabled:false}") boolean hedgeEnabled,
+            @Value("${vector.hedge.url:}") String hedgeUrl,
+            @Value("${vector.hedge.grpc-host:}") String hedgeGrpcHost,
+            @Value("${vector.hedge.percentile:95}") double hedgePercentile,
+            @Value("${vector.hedge.delay-ms:50}") long hedgeDelayMs,
+            @Value("${vector.hedge.max-ratio:0.1}") double hedgeMaxRatio,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
     ) {
         this.webClient = WebClient.builder().baseUrl(vectorUrl).build();
+        this.hedgeWebClient = hedgeUrl == null || hedgeUrl.isBlank()
+                ? webClient
+                : WebClient.builder().baseUrl(hedgeUrl).build();
+        this.hedger = new RetrievalHedger("vector", hedgeEnabled, hedgePercentile, hedgeDelayMs, hedgeMaxRatio, meterRegistry);
         this.grpcEnabled = grpcEnabled;
         this.objectMapper = objectMapper;
         this.requestTimeoutMs = Math.max(50L, requestTimeoutMs);
@@ -56,50 +94,225 @@ public class VectorSemanticSearchClient implements SemanticSearchClient, Disposa
         if (grpcEnabled) {
             this.grpcChannel = ManagedChannelBuilder.forAddress(grpcHost, grpcPort).usePlaintext().build();
             this.vectorSearchStub = VectorSearchServiceGrpc.newBlockingStub(grpcChannel);
+            this.vectorSearchAsyncStub = VectorSearchServiceGrpc.newStub(grpcChannel);
+            if (hedgeEnabled && hedgeGrpcHost != null && !hedgeGrpcHost.isBlank()) {
+                this.hedgeGrpcChannel = ManagedChannelBuilder.forAddress(hedgeGrpcHost, grpcPort).usePlaintext().build();
+                this.hedgeAsyncStub = VectorSearchServiceGrpc.newStub(hedgeGrpcChannel);
+            } else {
+                this.hedgeGrpcChannel = null;
+                this.hedgeAsyncStub = vectorSearchAsyncStub;
+            }
         } else {
             this.grpcChannel = null;
+            this.hedgeGrpcChannel = null;
             this.vectorSearchStub = null;
+            this.vectorSearchAsyncStub = null;
+            this.hedgeAsyncStub = null;
         }
     }
 
     @Override
     public String search(String query, Integer topK) {
+        byte[] body = searchBytes(query, topK);
+        return body == null ? null : new String(body, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] searchBytes(String query, Integer topK) {
+        return searchBytes(query, topK, NO_DEADLINE);
+    }
+
+    @Override
+    public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
         if (grpcEnabled && vectorSearchStub != null) {
             try {
-                return grpcSearch(query, topK);
+                return grpcSearch(query, topK, deadlineNanos);
             } catch (Exception ex) {
+                failIfAbandoned();
                 log.warn("gRPC vector search failed, falling back to REST", ex);
             }
         }
-        return restSearch(query, topK);
+        return restSearch(query, topK, deadlineNanos);
     }
 
-    private String restSearch(String query, Integer topK) {
-        try {
-            return webClient.get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/api/vector/search")
-                            .queryParam("query", query)
-                            .queryParamIfPresent("topK", java.util.Optional.ofNullable(topK))
-                            .build())
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block(Duration.ofMillis(requestTimeoutMs));
-        } catch (Exception ex) {
-            log.warn("REST vector search failed, returning empty set", ex);
-            return "[]";
+    @Override
+    public RetrievalHits searchHits(String query, Integer topK) {
+        return searchHits(query, topK, NO_DEADLINE);
+    }
+
+    @Override
+    public RetrievalHits searchHits(String query, Integer topK, long deadlineNanos) {
+        if (grpcEnabled && vectorSearchStub != null) {
+            try {
+                return toHits(grpcCall(query, topK, deadlineNanos));
+            } catch (Exception ex) {
+                failIfAbandoned();
+                log.warn("gRPC vector search failed, falling back to REST", ex);
+            }
+            return RetrievalSignalParser.shared().parseVector(restSearch(query, topK, deadlineNanos));
+        }
+        return SemanticSearchClient.super.searchHits(query, topK, deadlineNanos);
+    }
+
+    @Override
+    public Mono<RetrievalHits> searchHitsReactive(String query, Integer topK) {
+        return searchHitsReactive(query, topK, NO_DEADLINE);
+    }
+
+    @Override
+    public Mono<RetrievalHits> searchHitsReactive(String query, Integer topK, long deadlineNanos) {
+        Mono<RetrievalHits> rest = Mono.defer(() -> restSearchReactive(query, topK, deadlineNanos))
+                .map(RetrievalSignalParser.shared()::parseVector);
+        if (grpcEnabled && vectorSearchAsyncStub != null) {
+            return grpcSearchReactive(query, topK, deadlineNanos).map(this::toHits).onErrorResume(ex -> {
+                log.warn("gRPC vector search failed, falling back to REST", ex);
+                return rest;
+            });
+        }
+        return rest;
+    }
+
+    /**
+     * An interrupted caller has timed out the stage and the gRPC call was cancelled with it, so
+     * there is nobody left to serve a REST fallback.
+     */
+    private static void failIfAbandoned() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("vector stage abandoned");
         }
     }
 
-    private String grpcSearch(String query, Integer topK) throws JsonProcessingException {
-        VectorSearchRequest request = VectorSearchRequest.newBuilder()
+    /**
+     * The configured timeout, shortened to whatever is left of the caller's deadline.
+     */
+    private static long timeoutMs(long configuredMs, long deadlineNanos) {
+        if (deadlineNanos == NO_DEADLINE) {
+            return configuredMs;
+        }
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        return Math.max(1L, Math.min(configuredMs, remainingMs));
+    }
+
+    private byte[] restSearch(String query, Integer topK, long deadlineNanos) {
+        return restSearchReactive(query, topK, deadlineNanos).block();
+    }
+
+    private Mono<byte[]> restSearchReactive(String query, Integer topK, long deadlineNanos) {
+        // The empty-result fallback sits outside the hedge so a failed attempt cannot win the race.
+        return hedger.hedge(attempt -> restCall(
+                        attempt == RetrievalHedger.PRIMARY ? webClient : hedgeWebClient,
+                        query,
+                        topK,
+                        deadlineNanos
+                ))
+                .onErrorResume(ex -> {
+                    log.warn("REST vector search failed, returning empty set", ex);
+                    return Mono.just(EMPTY_RESULT.clone());
+                });
+    }
+
+    private Mono<byte[]> restCall(WebClient client, String query, Integer topK, long deadlineNanos) {
+        long timeoutMs = timeoutMs(requestTimeoutMs, deadlineNanos);
+        return client.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/vector/search")
+                        .queryParam("query", query)
+                        .queryParamIfPresent("topK", java.util.Optional.ofNullable(topK))
+                        .build())
+                .header(DEADLINE_HEADER, Long.toString(timeoutMs))
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .timeout(Duration.ofMillis(timeoutMs));
+    }
+
+    private byte[] grpcSearch(String query, Integer topK, long deadlineNanos) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(toJsonHits(grpcCall(query, topK, deadlineNanos)));
+    }
+
+    private VectorSearchResponse grpcCall(String query, Integer topK, long deadlineNanos) {
+        if (hedger.enabled()) {
+            VectorSearchResponse response = grpcSearchReactive(query, topK, deadlineNanos).block();
+            if (response == null) {
+                throw new IllegalStateException("gRPC vector search completed without a response");
+            }
+            return response;
+        }
+        return vectorSearchStub
+                .withDeadlineAfter(timeoutMs(grpcDeadlineMs, deadlineNanos), TimeUnit.MILLISECONDS)
+                .search(buildRequest(query, topK));
+    }
+
+    private Mono<VectorSearchResponse> grpcSearchReactive(String query, Integer topK, long deadlineNanos) {
+        VectorSearchRequest request = buildRequest(query, topK);
+        return hedger.hedge(attempt -> grpcAttempt(
+                attempt == RetrievalHedger.PRIMARY ? vectorSearchAsyncStub : hedgeAsyncStub,
+                request,
+                deadlineNanos
+        ));
+    }
+
+    private Mono<VectorSearchResponse> grpcAttempt(
+            VectorSearchServiceGrpc.VectorSearchServiceStub stub,
+            VectorSearchRequest request,
+            long deadlineNanos
+    ) {
+        return Mono.<VectorSearchResponse>create(sink -> {
+                    // Cancelling the subscription (stage timeout) cancels the in-flight RPC as well.
+                    Context.CancellableContext callContext = Context.current().withCancellation();
+                    sink.onCancel(() -> callContext.cancel(null));
+                    callContext.run(() -> stub
+                            .withDeadlineAfter(timeoutMs(grpcDeadlineMs, deadlineNanos), TimeUnit.MILLISECONDS)
+                            .search(request, new StreamObserver<>() {
+                                @Override
+                                public void onNext(VectorSearchResponse value) {
+                                    sink.success(value);
+                                }
+
+                                @Override
+                                public void onError(Throwable error) {
+                                    sink.error(error);
+                                }
+
+                                @Override
+                                public void onCompleted() {
+                                    sink.success();
+                                }
+                            }));
+                });
+    }
+
+    private static VectorSearchRequest buildRequest(String query, Integer topK) {
+        return VectorSearchRequest.newBuilder()
                 .setQuery(query == null ? "" : query)
                 .setTopK(topK == null ? 0 : topK)
                 .build();
+    }
 
-        VectorSearchResponse response = vectorSearchStub
-                .withDeadlineAfter(grpcDeadlineMs, TimeUnit.MILLISECONDS)
-                .search(request);
+    /**
+     * Builds fusion input straight from the protobuf hits; the JSON form is only rendered on request.
+     */
+    private RetrievalHits toHits(VectorSearchResponse response) {
+        RetrievalHits hits = new RetrievalHits(response.getHitsCount());
+        for (int i = 0; i < response.getHitsCount(); i++) {
+            VectorHit hit = response.getHits(i);
+            if (hit.getDocumentId().isBlank()) {
+                continue;
+            }
+            hits.add(hit.getDocumentId(), hit.getTitle(), hit.getSimilarityScore(), i + 1);
+        }
+        return hits.withRawPayload(() -> renderJson(response));
+    }
+
+    private String renderJson(VectorSearchResponse response) {
+        try {
+            return objectMapper.writeValueAsString(toJsonHits(response));
+        } catch (JsonProcessingException ex) {
+            log.warn("Failed to render vector payload", ex);
+            return "[]";
+        }
+    }
+
+    private static List<Map<String, Object>> toJsonHits(VectorSearchResponse response) {
         List<Map<String, Object>> hits = new ArrayList<>();
         for (VectorHit hit : response.getHitsList()) {
             hits.add(Map.of(
@@ -108,7 +321,7 @@ public class VectorSemanticSearchClient implements SemanticSearchClient, Disposa
                     "title", hit.getTitle()
             ));
         }
-        return objectMapper.writeValueAsString(hits);
+        return hits;
     }
 
     @Override
@@ -116,5 +329,8 @@ public class VectorSemanticSearchClient implements SemanticSearchClient, Disposa
         if (grpcChannel != null) {
             grpcChannel.shutdown();
         }
+        if (hedgeGrpcChannel != null) {
+            hedgeGrpcChannel.shutdown();
+        }
     }
 }
@@ -3,13 +3,31 @@ package com.hybrid.query;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hybrid.query.model.QueryRequest;
 import com.hybrid.query.model.QueryResult;
+import com.hybrid.query.grpc.HybridSearchResponse;
 import com.hybrid.query.model.RankedResult;
+import com.hybrid.query.service.CachedQuery;
+import com.hybrid.query.service.FacetSnapshotCache;
+import com.hybrid.query.service.HybridQueryCacheService;
+import com.hybrid.query.service.QueryLogService;
+import com.hybrid.query.service.QueryResultEncoder;
 import com.hybrid.query.service.QueryService;
 import com.hybrid.query.service.SolrLexicalSearchClient;
 import com.hybrid.query.service.VectorSemanticSearchClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
 
 class QueryServiceTests {
 
@@ -17,21 +35,21 @@ class QueryServiceTests {
     void testHybridSearchRanksMergedResults() {
         SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
             @Override
-            public String search(String query) {
-                return "{\"response\":{\"docs\":[{" +
+            public byte[] searchBytes(String query) {
+                return utf8("{\"response\":{\"docs\":[{" +
                         "\"id\":\"doc-001\",\"title\":\"A\",\"score\":2.0},{" +
-                        "\"id\":\"doc-002\",\"title\":\"B\",\"score\":1.0}]}}";
+                        "\"id\":\"doc-002\",\"title\":\"B\",\"score\":1.0}]}}");
             }
         };
 
         VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
             @Override
-            public String search(String query, Integer topK) {
-                return "[{\"documentId\":\"doc-002\",\"similarityScore\":0.95},{\"documentId\":\"doc-003\",\"similarityScore\":0.80}]";
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                return utf8("[{\"documentId\":\"doc-002\",\"similarityScore\":0.95},{\"documentId\":\"doc-003\",\"similarityScore\":0.80}]");
             }
         };
 
-        QueryService queryService = new QueryService(solrClient, vectorClient, new ObjectMapper());
+        QueryService queryService = new QueryService(solrClient, vectorClient);
 
         QueryRequest req = new QueryRequest();
         req.setQuery("test");
@@ -49,22 +67,23 @@ class QueryServiceTests {
     void testHybridSearchFallsBackWhenDownstreamFails() {
         SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
             @Override
-            public String search(String query) {
+            public byte[] searchBytes(String query) {
                 throw new RuntimeException("solr down");
             }
         };
 
         VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
             @Override
-            public String search(String query, Integer topK) {
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
                 throw new RuntimeException("vector down");
             }
         };
 
-        QueryService queryService = new QueryService(solrClient, vectorClient, new ObjectMapper());
+        QueryService queryService = new QueryService(solrClient, vectorClient);
 
         QueryRequest req = new QueryRequest();
         req.setQuery("test");
+        req.setDebug(true);
 
         QueryResult result = queryService.executeHybridSearch(req);
 
@@ -74,26 +93,61 @@ class QueryServiceTests {
         assertThat(result.getVectorResult()).startsWith("[");
     }
 
+    @Test
+    void testRawPayloadsOnlyReturnedInDebugMode() {
+        SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
+            @Override
+            public byte[] searchBytes(String query) {
+                return utf8("{\"response\":{\"docs\":[{\"id\":\"doc-001\",\"title\":\"A\",\"score\":2.0}]}}");
+            }
+        };
+
+        VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
+            @Override
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                return utf8("[{\"documentId\":\"doc-001\",\"similarityScore\":0.9}]");
+            }
+        };
+
+        QueryService queryService = new QueryService(solrClient, vectorClient);
+
+        QueryRequest lean = new QueryRequest();
+        lean.setQuery("payloads");
+        QueryResult leanResult = queryService.executeHybridSearch(lean);
+
+        QueryRequest debug = new QueryRequest();
+        debug.setQuery("payloads");
+        debug.setDebug(true);
+        QueryResult debugResult = queryService.executeHybridSearch(debug);
+
+        assertThat(leanResult.getSolrResult()).isNull();
+        assertThat(leanResult.getVectorResult()).isNull();
+        assertThat(leanResult.getRankedResults()).hasSize(1);
+        assertThat(debugResult.getSolrResult()).contains("doc-001");
+        assertThat(debugResult.getVectorResult()).contains("doc-001");
+        assertThat(debugResult.getRankedResults()).hasSize(1);
+    }
+
     @Test
     void testHybridSearchRespectsTopK() {
         SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
             @Override
-            public String search(String query) {
-                return "{\"response\":{\"docs\":[{" +
+            public byte[] searchBytes(String query) {
+                return utf8("{\"response\":{\"docs\":[{" +
                         "\"id\":\"doc-001\",\"title\":\"A\",\"score\":4.0},{" +
                         "\"id\":\"doc-002\",\"title\":\"B\",\"score\":3.0},{" +
-                        "\"id\":\"doc-003\",\"title\":\"C\",\"score\":2.0}]}}";
+                        "\"id\":\"doc-003\",\"title\":\"C\",\"score\":2.0}]}}");
             }
         };
 
         VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
             @Override
-            public String search(String query, Integer topK) {
-                return "[{\"documentId\":\"doc-004\",\"similarityScore\":0.95}]";
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                return utf8("[{\"documentId\":\"doc-004\",\"similarityScore\":0.95}]");
             }
         };
 
-        QueryService queryService = new QueryService(solrClient, vectorClient, new ObjectMapper());
+        QueryService queryService = new QueryService(solrClient, vectorClient);
 
         QueryRequest req = new QueryRequest();
         req.setQuery("test");
@@ -109,21 +163,21 @@ class QueryServiceTests {
     void testHybridSearchParsesArrayTitleAndMissingSolrScore() {
         SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
             @Override
-            public String search(String query) {
-                return "{\"response\":{\"docs\":[{" +
+            public byte[] searchBytes(String query) {
+                return utf8("{\"response\":{\"docs\":[{" +
                         "\"id\":\"doc-101\",\"title\":[\"Array Title A\"]},{" +
-                        "\"id\":\"doc-102\",\"title\":[\"Array Title B\"]}]}}";
+                        "\"id\":\"doc-102\",\"title\":[\"Array Title B\"]}]}}");
             }
         };
 
         VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
             @Override
-            public String search(String query, Integer topK) {
-                return "[]";
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                return utf8("[]");
             }
         };
 
-        QueryService queryService = new QueryService(solrClient, vectorClient, new ObjectMapper());
+        QueryService queryService = new QueryService(solrClient, vectorClient);
 
         QueryRequest req = new QueryRequest();
         req.setQuery("test");
@@ -141,27 +195,28 @@ class QueryServiceTests {
     void testHybridSearchFallsBackToLexicalWhenVectorTimesOut() {
         SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
             @Override
-            public String search(String query) {
-                return "{\"response\":{\"docs\":[{\"id\":\"doc-500\",\"title\":\"Only Lexical\",\"score\":5.0}]}}";
+            public byte[] searchBytes(String query) {
+                return utf8("{\"response\":{\"docs\":[{\"id\":\"doc-500\",\"title\":\"Only Lexical\",\"score\":5.0}]}}");
             }
         };
 
         VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
             @Override
-            public String search(String query, Integer topK) {
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
                 try {
                     Thread.sleep(250);
                 } catch (InterruptedException ex) {
                     Thread.currentThread().interrupt();
                 }
-                return "[{\"documentId\":\"doc-999\",\"similarityScore\":0.99}]";
+                return utf8("[{\"documentId\":\"doc-999\",\"similarityScore\":0.99}]");
             }
         };
 
-        QueryService queryService = new QueryService(solrClient, vectorClient, new ObjectMapper(), 120, 60);
+        QueryService queryService = new QueryService(solrClient, vectorClient, 120, 60);
 
         QueryRequest req = new QueryRequest();
         req.setQuery("timeout");
+        req.setDebug(true);
 
         QueryResult result = queryService.executeHybridSearch(req, "test-trace");
 
@@ -171,23 +226,62 @@ class QueryServiceTests {
         assertThat(result.getRankedResults().get(0).getId()).isEqualTo("doc-500");
     }
 
+    @Test
+    void testTimedOutStageIsInterrupted() throws Exception {
+        SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
+            @Override
+            public byte[] searchBytes(String query) {
+                return utf8("{\"response\":{\"docs\":[{\"id\":\"doc-500\",\"title\":\"Only Lexical\",\"score\":5.0}]}}");
+            }
+        };
+
+        CountDownLatch vectorInterrupted = new CountDownLatch(1);
+        VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
+            @Override
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException ex) {
+                    vectorInterrupted.countDown();
+                    Thread.currentThread().interrupt();
+                }
+                return utf8("[]");
+            }
+        };
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QueryService queryService = new QueryService(
+                solrClient, vectorClient, registry,
+                null, null, null, null, 300, 60, 0L, null, null
+        );
+
+        QueryRequest req = new QueryRequest();
+        req.setQuery("stalled vector");
+        QueryResult result = queryService.executeHybridSearch(req, "cancel-trace");
+
+        assertThat(result.getRankedResults()).extracting(RankedResult::getId).containsExactly("doc-500");
+        assertThat(vectorInterrupted.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(registry.counter("query_stage_timeout_total").count()).isEqualTo(1.0);
+        assertThat(registry.counter("query_stage_cancelled_total").count()).isEqualTo(1.0);
+    }
+
     @Test
     void testLexicalModeBiasesRankingOrder() {
         SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
             @Override
-            public String search(String query) {
-                return "{\"response\":{\"docs\":[{\"id\":\"doc-lex\",\"title\":\"Lexical\",\"score\":0.5},{\"id\":\"doc-shared\",\"title\":\"Shared\",\"score\":0.4}]}}";
+            public byte[] searchBytes(String query) {
+                return utf8("{\"response\":{\"docs\":[{\"id\":\"doc-lex\",\"title\":\"Lexical\",\"score\":0.5},{\"id\":\"doc-shared\",\"title\":\"Shared\",\"score\":0.4}]}}");
             }
         };
 
         VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
             @Override
-            public String search(String query, Integer topK) {
-                return "[{\"documentId\":\"doc-shared\",\"title\":\"Shared\",\"similarityScore\":0.95}]";
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                return utf8("[{\"documentId\":\"doc-shared\",\"title\":\"Shared\",\"similarityScore\":0.95}]");
             }
         };
 
-        QueryService queryService = new QueryService(solrClient, vectorClient, new ObjectMapper());
+        QueryService queryService = new QueryService(solrClient, vectorClient);
 
         QueryRequest req = new QueryRequest();
         req.setQuery("lexical mode");
@@ -205,23 +299,24 @@ class QueryServiceTests {
     void testFilterSolrOnlyDropsVectorResults() {
         SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
             @Override
-            public String search(String query) {
-                return "{\"response\":{\"docs\":[{\"id\":\"doc-lex\",\"title\":\"Lexical\",\"score\":2.0}]}}";
+            public byte[] searchBytes(String query) {
+                return utf8("{\"response\":{\"docs\":[{\"id\":\"doc-lex\",\"title\":\"Lexical\",\"score\":2.0}]}}");
             }
         };
 
         VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
             @Override
-            public String search(String query, Integer topK) {
-                return "[{\"documentId\":\"doc-vector\",\"title\":\"Vector\",\"similarityScore\":0.95}]";
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                return utf8("[{\"documentId\":\"doc-vector\",\"title\":\"Vector\",\"similarityScore\":0.95}]");
             }
         };
 
-        QueryService queryService = new QueryService(solrClient, vectorClient, new ObjectMapper());
+        QueryService queryService = new QueryService(solrClient, vectorClient);
 
         QueryRequest req = new QueryRequest();
         req.setQuery("solr filter");
         req.setFilter("solr");
+        req.setDebug(true);
 
         QueryResult result = queryService.executeHybridSearch(req);
 
@@ -238,23 +333,24 @@ class QueryServiceTests {
     void testFilterVectorOnlyHidesSolrPayload() {
         SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
             @Override
-            public String search(String query) {
-                return "{\"response\":{\"docs\":[{\"id\":\"doc-lex\",\"title\":\"Lexical\",\"score\":2.0}]}}";
+            public byte[] searchBytes(String query) {
+                return utf8("{\"response\":{\"docs\":[{\"id\":\"doc-lex\",\"title\":\"Lexical\",\"score\":2.0}]}}");
             }
         };
 
         VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
             @Override
-            public String search(String query, Integer topK) {
-                return "[{\"documentId\":\"doc-vector\",\"title\":\"Vector\",\"similarityScore\":0.95}]";
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                return utf8("[{\"documentId\":\"doc-vector\",\"title\":\"Vector\",\"similarityScore\":0.95}]");
             }
         };
 
-        QueryService queryService = new QueryService(solrClient, vectorClient, new ObjectMapper());
+        QueryService queryService = new QueryService(solrClient, vectorClient);
 
         QueryRequest req = new QueryRequest();
         req.setQuery("vector filter");
         req.setFilter("vector");
+        req.setDebug(true);
 
         QueryResult result = queryService.executeHybridSearch(req);
 
@@ -266,4 +362,557 @@ class QueryServiceTests {
         assertThat(result.getMessage()).contains("filter=vector");
         assertThat(result.getSolrResult()).isEqualTo("{\"response\":{\"docs\":[]}}");
     }
+
+    @Test
+    void testRrfFusionRanksByReciprocalRank() {
+        SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
+            @Override
+            public byte[] searchBytes(String query) {
+                return utf8("{\"response\":{\"docs\":[" +
+                        "{\"id\":\"doc-a\",\"title\":\"A\",\"score\":90.0}," +
+                        "{\"id\":\"doc-b\",\"title\":\"B\",\"score\":1.0}]}}");
+            }
+        };
+
+        VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
+            @Override
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                return utf8("[{\"documentId\":\"doc-b\",\"similarityScore\":0.10}," +
+                        "{\"documentId\":\"doc-c\",\"similarityScore\":0.09}]");
+            }
+        };
+
+        QueryService queryService = new QueryService(solrClient, vectorClient);
+
+        QueryRequest req = new QueryRequest();
+        req.setQuery("rrf");
+        req.setFusion("rrf");
+
+        QueryResult result = queryService.executeHybridSearch(req);
+
+        assertThat(result.getMessage()).contains("fusion=rrf");
+        assertThat(result.getRankedResults()).extracting(RankedResult::getId)
+                .containsExactly("doc-b", "doc-a", "doc-c");
+        assertThat(result.getRankedResults().get(0).getScore()).isCloseTo(1.0 / 62 + 1.0 / 61, within(1e-9));
+    }
+
+    @Test
+    void testZScoreFusionScoresMissingSideAsItsLowestZScore() {
+        SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
+            @Override
+            public byte[] searchBytes(String query) {
+                return utf8("{\"response\":{\"docs\":[" +
+                        "{\"id\":\"doc-a\",\"title\":\"A\",\"score\":3.0}," +
+                        "{\"id\":\"doc-b\",\"title\":\"B\",\"score\":2.0}," +
+                        "{\"id\":\"doc-c\",\"title\":\"C\",\"score\":1.0}]}}");
+            }
+        };
+
+        VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
+            @Override
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                return utf8("[{\"documentId\":\"doc-b\",\"similarityScore\":0.9}," +
+                        "{\"documentId\":\"doc-d\",\"similarityScore\":0.5}," +
+                        "{\"documentId\":\"doc-e\",\"similarityScore\":0.1}]");
+            }
+        };
+
+        QueryService queryService = new QueryService(solrClient, vectorClient);
+
+        QueryRequest req = new QueryRequest();
+        req.setQuery("zscore");
+        req.setFusion("zscore");
+
+        QueryResult result = queryService.executeHybridSearch(req);
+
+        // Both sides standardise to z = +1.2247, 0, -1.2247. Counting doc-a's missing semantic side
+        // as the mean (0) would rank it first; as the lowest z-score it falls behind doc-b.
+        double z = Math.sqrt(1.5);
+        assertThat(result.getRankedResults()).extracting(RankedResult::getId).startsWith("doc-b", "doc-a");
+        assertThat(result.getRankedResults().get(0).getScore()).isCloseTo(0.4 * z, within(1e-9));
+        assertThat(result.getRankedResults().get(1).getScore()).isCloseTo(0.6 * z - 0.4 * z, within(1e-9));
+        assertThat(result.getRankedResults().get(1).getSemanticScore()).isZero();
+    }
+
+    @Test
+    void testConcurrentIdenticalQueriesShareOneBackendCall() throws Exception {
+        AtomicInteger solrCalls = new AtomicInteger();
+        CountDownLatch solrEntered = new CountDownLatch(1);
+        CountDownLatch releaseSolr = new CountDownLatch(1);
+        SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
+            @Override
+            public byte[] searchBytes(String query) {
+                solrCalls.incrementAndGet();
+                solrEntered.countDown();
+                try {
+                    releaseSolr.await(2, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return utf8("{\"response\":{\"docs\":[{\"id\":\"doc-1\",\"title\":\"Shared\",\"score\":4.0}]}}");
+            }
+        };
+
+        VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
+            @Override
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                return utf8("[]");
+            }
+        };
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QueryService queryService = new QueryService(
+                solrClient, vectorClient, registry,
+                null, null, null, null, 3000, 3000, 3000, null, null
+        );
+
+        QueryRequest req = new QueryRequest();
+        req.setQuery("flash sale");
+
+        CompletableFuture<QueryResult> leader = CompletableFuture.supplyAsync(() -> queryService.executeHybridSearch(req));
+        assertThat(solrEntered.await(2, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<QueryResult> follower = CompletableFuture.supplyAsync(() -> queryService.executeHybridSearch(req));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (registry.counter("query_coalesce_follower_total").count() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        releaseSolr.countDown();
+
+        QueryResult leaderResult = leader.get(2, TimeUnit.SECONDS);
+        QueryResult followerResult = follower.get(2, TimeUnit.SECONDS);
+
+        assertThat(solrCalls.get()).isEqualTo(1);
+        assertThat(followerResult).isSameAs(leaderResult);
+        assertThat(followerResult.getRankedResults()).extracting(RankedResult::getId).containsExactly("doc-1");
+        assertThat(registry.counter("query_coalesce_leader_total").count()).isEqualTo(1.0);
+        assertThat(registry.counter("query_coalesced_total").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testFollowerIsReleasedWhenLeaderFailsWithError() throws Exception {
+        CountDownLatch solrEntered = new CountDownLatch(1);
+        CountDownLatch releaseSolr = new CountDownLatch(1);
+        SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
+            @Override
+            public byte[] searchBytes(String query) {
+                solrEntered.countDown();
+                try {
+                    releaseSolr.await(2, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return utf8("{\"response\":{\"docs\":[]}}");
+            }
+        };
+
+        VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
+            @Override
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                return utf8("[]");
+            }
+        };
+
+        // The leader's query log write is the last step of its execution; an Error there escapes it.
+        QueryLogService failingLog = new QueryLogService(null) {
+            @Override
+            public void write(String query, int topK, double latencyMs, String status) {
+                throw new AssertionError("log writer broken");
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QueryService queryService = new QueryService(
+                solrClient, vectorClient, registry,
+                failingLog, null, null, null, 3000, 3000, 3000, null, null
+        );
+
+        QueryRequest req = new QueryRequest();
+        req.setQuery("flash sale");
+
+        CompletableFuture<QueryResult> leader = CompletableFuture.supplyAsync(() -> queryService.executeHybridSearch(req));
+        assertThat(solrEntered.await(2, TimeUnit.SECONDS)).isTrue();
+        // The follower's exception is captured as thrown, without the CompletableFuture wrapping.
+        CompletableFuture<Throwable> follower = CompletableFuture.supplyAsync(() -> {
+            try {
+                queryService.executeHybridSearch(req);
+                return null;
+            } catch (Throwable ex) {
+                return ex;
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (registry.counter("query_coalesce_follower_total").count() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        releaseSolr.countDown();
+
+        assertThatThrownBy(() -> leader.get(2, TimeUnit.SECONDS)).hasRootCauseInstanceOf(AssertionError.class);
+        assertThat(follower.get(2, TimeUnit.SECONDS)).isInstanceOf(AssertionError.class).hasMessage("log writer broken");
+        failingLog.destroy();
+    }
+
+    @Test
+    void testFollowerStopsWaitingAtItsOwnDeadline() throws Exception {
+        CountDownLatch solrEntered = new CountDownLatch(1);
+        CountDownLatch releaseSolr = new CountDownLatch(1);
+        SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
+            @Override
+            public byte[] searchBytes(String query) {
+                solrEntered.countDown();
+                try {
+                    releaseSolr.await(2, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return utf8("{\"response\":{\"docs\":[{\"id\":\"doc-1\",\"title\":\"Slow\",\"score\":1.0}]}}");
+            }
+        };
+
+        VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
+            @Override
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                return utf8("[]");
+            }
+        };
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QueryService queryService = new QueryService(
+                solrClient, vectorClient, registry,
+                null, null, null, null, 3000, 3000, 3000, null, null
+        );
+
+        QueryRequest req = new QueryRequest();
+        req.setQuery("slow query");
+
+        CompletableFuture<QueryResult> leader = CompletableFuture.supplyAsync(() -> queryService.executeHybridSearch(req));
+        assertThat(solrEntered.await(2, TimeUnit.SECONDS)).isTrue();
+        long followerStart = System.nanoTime();
+        QueryResult followerResult = queryService.executeHybridSearch(req, "follower", 100L);
+        long followerMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - followerStart);
+        releaseSolr.countDown();
+
+        assertThat(followerResult.getRankedResults()).isEmpty();
+        assertThat(followerMillis).isLessThan(1_000L);
+        assertThat(registry.counter("query_coalesce_timeout_total").count()).isEqualTo(1.0);
+        assertThat(leader.get(2, TimeUnit.SECONDS).getRankedResults()).extracting(RankedResult::getId).containsExactly("doc-1");
+    }
+
+    @Test
+    void testExpiredDeadlineSkipsBackendsAndCache() {
+        AtomicInteger backendCalls = new AtomicInteger();
+        SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
+            @Override
+            public byte[] searchBytes(String query) {
+                backendCalls.incrementAndGet();
+                return utf8("{\"response\":{\"docs\":[{\"id\":\"doc-1\",\"title\":\"Late\",\"score\":1.0}]}}");
+            }
+        };
+
+        VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
+            @Override
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                backendCalls.incrementAndGet();
+                return utf8("[]");
+            }
+        };
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QueryService queryService = new QueryService(
+                solrClient, vectorClient, registry,
+                null, new HybridQueryCacheService(true, 120, 1L << 20), null, null, 3000, 3000, 3000, null, null
+        );
+
+        QueryRequest req = new QueryRequest();
+        req.setQuery("late query");
+        QueryResult expired = queryService.executeHybridSearch(req, "expired", 0L);
+        QueryResult expiredReactive = queryService.executeHybridSearchReactive(req, "expired-reactive", -5L).block();
+
+        assertThat(expired.getRankedResults()).isEmpty();
+        assertThat(expiredReactive.getRankedResults()).isEmpty();
+        assertThat(backendCalls.get()).isZero();
+        assertThat(registry.counter("query_deadline_exceeded_total").count()).isEqualTo(2.0);
+        assertThat(registry.counter("query_result_inmemory_cache_miss_total").count()).isZero();
+    }
+
+    @Test
+    void testWarmupSearchFillsCacheWithoutWritingQueryLogs() {
+        SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
+            @Override
+            public byte[] searchBytes(String query) {
+                return utf8("{\"response\":{\"docs\":[{\"id\":\"doc-1\",\"title\":\"Warm\",\"score\":1.0}]}}");
+            }
+        };
+
+        VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
+            @Override
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                return utf8("[]");
+            }
+        };
+
+        List<String> loggedStatuses = new CopyOnWriteArrayList<>();
+        QueryLogService recordingLog = new QueryLogService(null) {
+            @Override
+            public void write(String query, int topK, double latencyMs, String status) {
+                loggedStatuses.add(status);
+            }
+        };
+        QueryService queryService = new QueryService(
+                solrClient, vectorClient, new SimpleMeterRegistry(),
+                recordingLog, new HybridQueryCacheService(true, 60, 1L << 20), null, null, 3000, 3000, 3000, null, null
+        );
+
+        QueryRequest req = new QueryRequest();
+        req.setQuery("popular query");
+        String warmupStatus = queryService.executeWarmupSearch(req, "startup-warmup-history-0");
+        QueryResult hit = queryService.executeHybridSearch(req);
+        recordingLog.destroy();
+
+        assertThat(warmupStatus).isEqualTo("SUCCESS");
+        assertThat(hit.getRankedResults()).isNotEmpty();
+        assertThat(loggedStatuses).containsExactly("CACHE_HIT_INMEMORY");
+    }
+
+    @Test
+    void testInMemoryCacheHitReusesEncodedResponseBytes() throws Exception {
+        AtomicInteger solrCalls = new AtomicInteger();
+        SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
+            @Override
+            public byte[] searchBytes(String query) {
+                solrCalls.incrementAndGet();
+                return utf8("{\"response\":{\"docs\":[{\"id\":\"doc-7\",\"title\":\"Hot\",\"score\":3.0}]}}");
+            }
+        };
+
+        VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
+            @Override
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                return utf8("[{\"documentId\":\"doc-7\",\"similarityScore\":0.8}]");
+            }
+        };
+
+        ObjectMapper mapper = new ObjectMapper();
+        QueryService queryService = new QueryService(
+                solrClient, vectorClient, new SimpleMeterRegistry(),
+                null, new HybridQueryCacheService(true, 60, 1L << 20), null, null, 3000, 3000, 3000, null, null
+        );
+        QueryResultEncoder encoder = new QueryResultEncoder(mapper);
+
+        QueryRequest req = new QueryRequest();
+        req.setQuery("hot query");
+        QueryResult miss = queryService.executeHybridSearch(req);
+        byte[] missJson = encoder.json(miss);
+        QueryResult hit = queryService.executeHybridSearch(req);
+
+        assertThat(solrCalls.get()).isEqualTo(1);
+        assertThat(hit).isSameAs(miss);
+        assertThat(encoder.json(hit)).isSameAs(missJson);
+        assertThat(encoder.protobuf(hit)).isSameAs(encoder.protobuf(hit));
+        assertThat(mapper.readValue(missJson, QueryResult.class).getRankedResults())
+                .extracting(RankedResult::getId).containsExactly("doc-7");
+        HybridSearchResponse response = HybridSearchResponse.parseFrom(encoder.protobuf(hit));
+        assertThat(response.getRankedResultsList()).hasSize(1);
+        assertThat(response.getRankedResults(0).getId()).isEqualTo("doc-7");
+    }
+
+    @Test
+    void testNearDuplicateQueriesAndSmallerTopKShareCachedResult() {
+        AtomicInteger solrCalls = new AtomicInteger();
+        List<String> solrQueries = new CopyOnWriteArrayList<>();
+        SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
+            @Override
+            public byte[] searchBytes(String query) {
+                solrCalls.incrementAndGet();
+                solrQueries.add(query);
+                return utf8("{\"response\":{\"docs\":[" +
+                        "{\"id\":\"doc-1\",\"title\":\"A\",\"score\":3.0}," +
+                        "{\"id\":\"doc-2\",\"title\":\"B\",\"score\":2.0}," +
+                        "{\"id\":\"doc-3\",\"title\":\"C\",\"score\":1.0}]}}");
+            }
+        };
+
+        VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
+            @Override
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                return utf8("[]");
+            }
+        };
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QueryService queryService = new QueryService(
+                solrClient, vectorClient, registry,
+                null, new HybridQueryCacheService(true, 60, 1L << 20), null, null, 3000, 3000, 3000, null, null
+        );
+
+        QueryRequest first = new QueryRequest();
+        first.setQuery("Wireless  Headphones");
+        first.setTopK(3);
+        QueryResult deep = queryService.executeHybridSearch(first);
+
+        QueryRequest second = new QueryRequest();
+        second.setQuery(" wireless headphones ");
+        second.setTopK(2);
+        QueryResult shallow = queryService.executeHybridSearch(second);
+
+        assertThat(solrCalls.get()).isEqualTo(1);
+        assertThat(deep.getRankedResults()).extracting(RankedResult::getId).containsExactly("doc-1", "doc-2", "doc-3");
+        assertThat(shallow.getRankedResults()).extracting(RankedResult::getId).containsExactly("doc-1", "doc-2");
+        assertThat(registry.counter("query_cache_topk_subsumed_total").count()).isEqualTo(1.0);
+        assertThat(registry.counter("query_result_inmemory_cache_miss_total").count()).isEqualTo(1.0);
+
+        QueryRequest operatorQuery = new QueryRequest();
+        operatorQuery.setQuery("wireless OR headphones");
+        operatorQuery.setTopK(3);
+        queryService.executeHybridSearch(operatorQuery);
+
+        // The backends get the caller's text; an operator query does not hit the term query's entry.
+        assertThat(solrQueries).containsExactly("Wireless  Headphones", "wireless OR headphones");
+    }
+
+    @Test
+    void testStaleEntryIsServedWhileOneBackgroundRefreshRuns() throws Exception {
+        AtomicInteger solrCalls = new AtomicInteger();
+        SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
+            @Override
+            public byte[] searchBytes(String query) {
+                int call = solrCalls.incrementAndGet();
+                return utf8("{\"response\":{\"docs\":[{\"id\":\"doc-" + call + "\",\"title\":\"T\",\"score\":1.0}]}}");
+            }
+        };
+
+        VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
+            @Override
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                return utf8("[]");
+            }
+        };
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        HybridQueryCacheService cache = new HybridQueryCacheService(true, 1, 1L << 20, true, 30, 0.0, null);
+        QueryService queryService = new QueryService(
+                solrClient, vectorClient, registry,
+                null, cache, null, null, 3000, 3000, 3000, null, null
+        );
+
+        QueryRequest req = new QueryRequest();
+        req.setQuery("stale hot query");
+        QueryResult first = queryService.executeHybridSearch(req);
+        Thread.sleep(1_100);
+
+        QueryResult stale = queryService.executeHybridSearch(req);
+        queryService.executeHybridSearch(req);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (solrCalls.get() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(50);
+        QueryResult refreshed = queryService.executeHybridSearch(req);
+
+        assertThat(stale).isSameAs(first);
+        assertThat(solrCalls.get()).isEqualTo(2);
+        assertThat(registry.counter("query_cache_refresh_total").count()).isEqualTo(1.0);
+        assertThat(refreshed.getRankedResults()).extracting(RankedResult::getId).containsExactly("doc-2");
+    }
+
+    @Test
+    void testZeroHitResultIsCachedNegativelyWithShortTtl() throws Exception {
+        AtomicInteger solrCalls = new AtomicInteger();
+        SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
+            @Override
+            public byte[] searchBytes(String query) {
+                solrCalls.incrementAndGet();
+                return utf8("{\"response\":{\"docs\":[]}}");
+            }
+        };
+
+        VectorSemanticSearchClient vectorClient = new VectorSemanticSearchClient("http://localhost:8084") {
+            @Override
+            public byte[] searchBytes(String query, Integer topK, long deadlineNanos) {
+                return utf8("[]");
+            }
+        };
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        HybridQueryCacheService cache = new HybridQueryCacheService(
+                true, 120, 1L << 20, true, 30, 0.0, true, 1, 1L << 20, 0, registry
+        );
+        QueryService queryService = new QueryService(
+                solrClient, vectorClient, registry,
+                null, cache, null, null, 3000, 3000, 3000, null, null
+        );
+
+        QueryRequest req = new QueryRequest();
+        req.setQuery("qwzxv asdfgh");
+        QueryResult miss = queryService.executeHybridSearch(req);
+        QueryResult hit = queryService.executeHybridSearch(req);
+        Thread.sleep(1_100);
+        queryService.executeHybridSearch(req);
+
+        assertThat(miss.getRankedResults()).isEmpty();
+        assertThat(hit).isSameAs(miss);
+        assertThat(solrCalls.get()).isEqualTo(2);
+        assertThat(registry.counter("query_cache_negative_hit_total", "layer", "inmemory").count()).isEqualTo(1.0);
+        assertThat(registry.counter("query_cache_refresh_total").count()).isZero();
+    }
+
+    @Test
+    void testTruncatedViewOfDeepResultStaysPositive() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        HybridQueryCacheService cache = new HybridQueryCacheService(
+                true, 120, 1L << 20, true, 30, 0.0, true, 15, 1L << 20, 2, registry
+        );
+        List<RankedResult> ranked = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ranked.add(new RankedResult("doc-" + i, "Title " + i, 1.0 - i * 0.01, 1.0, 0.0));
+        }
+        cache.put("headphones", 10, "hybrid", "none", "RRF", new QueryResult("ok", ranked), 40L);
+
+        CachedQuery deep = cache.get("headphones", 10, "hybrid", "none", "RRF");
+        cache.put("headphones", 2, "hybrid", "none", "RRF", deep.withResult(deep.result().truncated(2)));
+        cache.put("headphones", 1, "hybrid", "none", "RRF", deep.result().truncated(1), 40L, cache.isNegative(deep.result()));
+
+        assertThat(deep.negative()).isFalse();
+        assertThat(cache.get("headphones", 10, "hybrid", "none", "RRF")).isNotNull();
+        assertThat(cache.get("headphones", 2, "hybrid", "none", "RRF").negative()).isFalse();
+        assertThat(cache.get("headphones", 1, "hybrid", "none", "RRF").negative()).isFalse();
+        assertThat(registry.counter("query_cache_negative_hit_total", "layer", "inmemory").count()).isZero();
+    }
+
+    @Test
+    void testFacetSnapshotIsLoadedOnceAndKeptWhenSolrFails() {
+        AtomicInteger facetCalls = new AtomicInteger();
+        AtomicInteger failing = new AtomicInteger();
+        SolrLexicalSearchClient solrClient = new SolrLexicalSearchClient("http://localhost:8983") {
+            @Override
+            public String facets(String field, int limit) {
+                facetCalls.incrementAndGet();
+                if (failing.get() > 0) {
+                    throw new IllegalStateException("solr down");
+                }
+                return "{\"facet_counts\":{\"facet_fields\":{\"" + field + "\":[\"news\"," + limit + "]}}}";
+            }
+
+            @Override
+            public String indexVersion() {
+                return "1";
+            }
+        };
+        FacetSnapshotCache facets = new FacetSnapshotCache(solrClient, true, 60_000, 60_000, 16, null);
+
+        FacetSnapshotCache.Snapshot first = facets.get(null, null);
+        FacetSnapshotCache.Snapshot second = facets.get("category", 20);
+        failing.set(1);
+        FacetSnapshotCache.Snapshot whileDown = facets.get("category", 20);
+        FacetSnapshotCache.Snapshot uncached = facets.get("brand", 5);
+        facets.destroy();
+
+        assertThat(second).isSameAs(first);
+        assertThat(whileDown).isSameAs(first);
+        assertThat(new String(first.jsonBytes(), StandardCharsets.UTF_8)).contains("\"category\":[\"news\",20]");
+        assertThat(uncached.json()).contains("\"facet_fields\":{}");
+        assertThat(facetCalls.get()).isEqualTo(2);
+    }
+
+    private static byte[] utf8(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,113 @@
+package com.hybrid.query.config;
+
+import com.hybrid.query.model.QueryRequest;
+import com.hybrid.query.model.QueryResult;
+import com.hybrid.query.service.QueryService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryWarmupRunnerTest {
+
+    @Test
+    void testOnlyReplaysWithoutBackendFailuresCountTowardCoverage() {
+        Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        // "flaky" fails twice, as it would while a backend is still starting.
+        QueryService queryService = replayingService(calls, (query, call) ->
+                !query.equals("flaky") || call > 2 ? "SUCCESS" : "PARTIAL_DOWNSTREAM_ERROR");
+        QueryWarmupRunner runner = runner(queryService, List.of("hot", "flaky"), 1.0, 5_000L, 2);
+
+        boolean covered = runner.replayHistory();
+
+        assertThat(covered).isTrue();
+        assertThat(calls.get("hot").get()).isEqualTo(1);
+        assertThat(calls.get("flaky").get()).isEqualTo(3);
+    }
+
+    @Test
+    void testReplayThatFindsNothingIsCovered() {
+        Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        // Every replay completes; none of them matches anything, as for typos logged by real users.
+        QueryService queryService = replayingService(calls, (query, call) -> "SUCCESS");
+        QueryWarmupRunner runner = runner(queryService, List.of("qwzxv", "asdfgh"), 1.0, 5_000L, 2);
+
+        assertThat(runner.replayHistory()).isTrue();
+        assertThat(calls.get("qwzxv").get()).isEqualTo(1);
+    }
+
+    @Test
+    void testReadinessWaitsForTimeBudgetWhenBackendsFail() {
+        Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        QueryService queryService = replayingService(calls, (query, call) -> "PARTIAL_LEXICAL_TIMEOUT");
+        QueryWarmupRunner runner = runner(queryService, List.of("a", "b", "c"), 0.5, 300L, 2);
+
+        long start = System.nanoTime();
+        boolean covered = runner.replayHistory();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(covered).isFalse();
+        assertThat(elapsedMs).isGreaterThanOrEqualTo(300L);
+        assertThat(calls.get("a").get()).isGreaterThan(1);
+    }
+
+    @Test
+    void testFailingQueriesDoNotHoldWorkersFromQueuedOnes() {
+        Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        QueryService queryService = replayingService(calls, (query, call) ->
+                query.startsWith("down") ? "PARTIAL_STAGE_REJECTED" : "SUCCESS");
+        // One worker, and the failing queries come first: retries must queue behind the others.
+        QueryWarmupRunner runner = runner(queryService, List.of("down-1", "down-2", "a", "b"), 0.5, 10_000L, 1);
+
+        long start = System.nanoTime();
+        boolean covered = runner.replayHistory();
+
+        assertThat(covered).isTrue();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5_000L);
+        assertThat(calls.get("a").get()).isEqualTo(1);
+        assertThat(calls.get("b").get()).isEqualTo(1);
+    }
+
+    private interface ReplayOutcome {
+        String status(String query, int call);
+    }
+
+    private static QueryService replayingService(Map<String, AtomicInteger> calls, ReplayOutcome outcome) {
+        return new QueryService(null, null) {
+            @Override
+            public QueryResult executeHybridSearch(QueryRequest request, String traceId, Long deadlineMs) {
+                throw new AssertionError("warmup replays must not use the logged entry point");
+            }
+
+            @Override
+            public String executeWarmupSearch(QueryRequest request, String traceId) {
+                int call = calls.computeIfAbsent(request.getQuery(), key -> new AtomicInteger()).incrementAndGet();
+                return outcome.status(request.getQuery(), call);
+            }
+        };
+    }
+
+    private static QueryWarmupRunner runner(
+            QueryService queryService,
+            List<String> queries,
+            double coverage,
+            long budgetMs,
+            int concurrency
+    ) {
+        return new QueryWarmupRunner(
+                queryService, null, null,
+                false, "probe", 1, 1, 0L,
+                null, true, queries.size(), 24, 0.0, concurrency, coverage, budgetMs, 20L
+        ) {
+            @Override
+            List<LoggedQuery> loadTopQueries() {
+                return queries.stream().map(query -> new LoggedQuery(query, 10)).toList();
+            }
+        };
+    }
+}
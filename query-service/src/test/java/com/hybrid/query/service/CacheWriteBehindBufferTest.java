@@ -0,0 +1,57 @@
+package com.hybrid.query.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheWriteBehindBufferTest {
+
+    @Test
+    void testRepeatedKeyIsCoalescedInPlaceWithLatestValue() {
+        CacheWriteBehindBuffer buffer = new CacheWriteBehindBuffer(4);
+
+        assertThat(buffer.offer(write("a", "a1"))).isEqualTo(CacheWriteBehindBuffer.Offer.QUEUED);
+        assertThat(buffer.offer(write("b", "b1"))).isEqualTo(CacheWriteBehindBuffer.Offer.QUEUED);
+        assertThat(buffer.offer(write("a", "a2"))).isEqualTo(CacheWriteBehindBuffer.Offer.COALESCED);
+
+        List<CacheWriteBehindBuffer.PendingWrite> batch = buffer.drain(10);
+
+        assertThat(batch).extracting(CacheWriteBehindBuffer.PendingWrite::key).containsExactly("a", "b");
+        assertThat(batch.get(0).value()).isEqualTo("a2");
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void testFullBufferDropsNewKeysButStillCoalesces() {
+        CacheWriteBehindBuffer buffer = new CacheWriteBehindBuffer(2);
+        buffer.offer(write("a", "a1"));
+        buffer.offer(write("b", "b1"));
+
+        assertThat(buffer.offer(write("c", "c1"))).isEqualTo(CacheWriteBehindBuffer.Offer.DROPPED);
+        assertThat(buffer.offer(write("b", "b2"))).isEqualTo(CacheWriteBehindBuffer.Offer.COALESCED);
+        assertThat(buffer.size()).isEqualTo(2);
+
+        buffer.drain(1);
+
+        assertThat(buffer.offer(write("c", "c2"))).isEqualTo(CacheWriteBehindBuffer.Offer.QUEUED);
+    }
+
+    @Test
+    void testDrainReturnsOldestWritesUpToBatchSize() {
+        CacheWriteBehindBuffer buffer = new CacheWriteBehindBuffer(8);
+        for (String key : List.of("a", "b", "c", "d", "e")) {
+            buffer.offer(write(key, key));
+        }
+
+        assertThat(buffer.drain(2)).extracting(CacheWriteBehindBuffer.PendingWrite::key).containsExactly("a", "b");
+        assertThat(buffer.drain(2)).extracting(CacheWriteBehindBuffer.PendingWrite::key).containsExactly("c", "d");
+        assertThat(buffer.drain(2)).extracting(CacheWriteBehindBuffer.PendingWrite::key).containsExactly("e");
+        assertThat(buffer.drain(2)).isEmpty();
+    }
+
+    private static CacheWriteBehindBuffer.PendingWrite write(String key, Object value) {
+        return new CacheWriteBehindBuffer.PendingWrite(key, 120L, value);
+    }
+}
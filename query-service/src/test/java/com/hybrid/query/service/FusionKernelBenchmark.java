@@ -0,0 +1,215 @@
+package com.hybrid.query.service;
+
+import com.hybrid.query.model.RankedResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link FusionKernel} with the previous HashMap + full sort implementation of
+ * {@code QueryService.mergeAndRank} at increasing candidate depths. The previous implementation
+ * only knew weighted fusion in hybrid mode, so it runs once per depth; the kernel also runs with
+ * each strategy in {@link KernelFusion}.
+ *
+ * <p>Run with:
+ * {@code mvn -pl query-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.hybrid.query.service.FusionKernelBenchmark}
+ * and add {@code -prof gc} through JMH options to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FusionKernelBenchmark {
+
+    private static final double LEXICAL_WEIGHT = 0.6;
+    private static final double SEMANTIC_WEIGHT = 0.4;
+
+    private static final RetrievalHits EMPTY_SOLR_HITS = RetrievalHits.empty(null);
+    private static final RetrievalHits EMPTY_VECTOR_HITS = RetrievalHits.empty(null);
+
+    @Param({"50", "200", "500"})
+    public int depth;
+
+    @Param({"20"})
+    public int topK;
+
+    private RetrievalHits lexical;
+    private RetrievalHits semantic;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        lexical = new RetrievalHits(depth);
+        semantic = new RetrievalHits(depth);
+        for (int i = 0; i < depth; i++) {
+            lexical.add("doc-" + i, "Title " + i, 1.0 + random.nextDouble() * 20.0);
+            // Roughly a third of the semantic candidates overlap with the lexical page.
+            int semanticDoc = random.nextInt(3) == 0 ? random.nextInt(depth) : depth + i;
+            semantic.add("doc-" + semanticDoc, "Title " + semanticDoc, random.nextDouble());
+        }
+    }
+
+    /**
+     * Fusion strategy for the kernel only; kept out of the main state so the legacy baseline is
+     * not repeated for strategies it never implemented.
+     */
+    @State(Scope.Benchmark)
+    public static class KernelFusion {
+        @Param({FusionStrategies.WEIGHTED, FusionStrategies.RRF})
+        public String fusion;
+    }
+
+    @Benchmark
+    public List<RankedResult> fusionKernel(KernelFusion kernel) {
+        return FusionKernel.fuse(
+                lexical,
+                semantic,
+                FusionStrategies.resolve(kernel.fusion),
+                LEXICAL_WEIGHT,
+                SEMANTIC_WEIGHT,
+                FusionKernel.RankBy.FUSED,
+                topK
+        );
+    }
+
+    @Benchmark
+    public List<RankedResult> legacyMergeAndRank() {
+        return mergeAndRank(lexical, semantic, topK, QueryMode.HYBRID, ResultFilter.NONE);
+    }
+
+    // Copied unchanged from QueryService before the fusion kernel replaced it.
+    private List<RankedResult> mergeAndRank(
+            RetrievalHits lexical,
+            RetrievalHits semantic,
+            int topK,
+            QueryMode mode,
+            ResultFilter filter
+    ) {
+        Map<String, MergedSignal> merged = new HashMap<>();
+
+        RetrievalHits lexicalStage = filter == ResultFilter.VECTOR_ONLY ? EMPTY_SOLR_HITS : lexical;
+        RetrievalHits semanticStage = filter == ResultFilter.SOLR_ONLY ? EMPTY_VECTOR_HITS : semantic;
+        double maxLexical = lexicalStage.maxScore(1.0);
+        double maxSemantic = semanticStage.maxScore(1.0);
+
+        for (int i = 0; i < lexicalStage.size(); i++) {
+            MergedSignal m = merged.computeIfAbsent(lexicalStage.id(i), id -> new MergedSignal(id));
+            m.title = chooseTitle(m.title, lexicalStage.title(i));
+            m.lexicalScore = normalize(lexicalStage.score(i), maxLexical);
+        }
+
+        for (int i = 0; i < semanticStage.size(); i++) {
+            MergedSignal m = merged.computeIfAbsent(semanticStage.id(i), id -> new MergedSignal(id));
+            m.title = chooseTitle(m.title, semanticStage.title(i));
+            m.semanticScore = normalize(semanticStage.score(i), maxSemantic);
+        }
+
+        List<RankedResult> ranked = new ArrayList<>();
+        for (MergedSignal m : merged.values()) {
+            double fused = (LEXICAL_WEIGHT * m.lexicalScore) + (SEMANTIC_WEIGHT * m.semanticScore);
+            if (filter == ResultFilter.SOLR_ONLY) {
+                fused = m.lexicalScore;
+            } else if (filter == ResultFilter.VECTOR_ONLY) {
+                fused = m.semanticScore;
+            }
+            ranked.add(new RankedResult(m.id, m.title, fused, m.lexicalScore, m.semanticScore));
+        }
+
+        Comparator<RankedResult> comparator = comparatorForMode(mode);
+        boolean hasLexicalScore = ranked.stream().anyMatch(r -> r.getLexicalScore() > 0);
+        boolean hasSemanticScore = ranked.stream().anyMatch(r -> r.getSemanticScore() > 0);
+        if (mode == QueryMode.LEXICAL && !hasLexicalScore) {
+            comparator = Comparator.comparingDouble(RankedResult::getScore).reversed();
+        } else if (mode == QueryMode.SEMANTIC && !hasSemanticScore) {
+            comparator = Comparator.comparingDouble(RankedResult::getScore).reversed();
+        }
+        ranked.sort(comparator);
+        if (ranked.size() <= topK) {
+            return ranked;
+        }
+        return new ArrayList<>(ranked.subList(0, topK));
+    }
+
+    private Comparator<RankedResult> comparatorForMode(QueryMode mode) {
+        switch (mode) {
+            case LEXICAL:
+                return Comparator.comparingDouble(RankedResult::getLexicalScore).reversed();
+            case SEMANTIC:
+                return Comparator.comparingDouble(RankedResult::getSemanticScore).reversed();
+            default:
+                return Comparator.comparingDouble(RankedResult::getScore).reversed();
+        }
+    }
+
+    private static double normalize(double value, double max) {
+        if (max <= 0) {
+            return 0.0;
+        }
+        double normalized = value / max;
+        if (normalized < 0) {
+            return 0.0;
+        }
+        return Math.min(normalized, 1.0);
+    }
+
+    private static String chooseTitle(String current, String candidate) {
+        if (current != null && !current.isBlank()) {
+            return current;
+        }
+        return candidate == null ? "" : candidate;
+    }
+
+    private enum QueryMode {
+        HYBRID,
+        LEXICAL,
+        SEMANTIC
+    }
+
+    private enum ResultFilter {
+        NONE,
+        SOLR_ONLY,
+        VECTOR_ONLY
+    }
+
+    private static class MergedSignal {
+        private final String id;
+        private String title = "";
+        private double lexicalScore;
+        private double semanticScore;
+
+        private MergedSignal(String id) {
+            this.id = id;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(FusionKernelBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,124 @@
+package com.hybrid.query.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryLogRingBufferTest {
+
+    @Test
+    void testCapacityIsRoundedUpToPowerOfTwo() {
+        assertThat(new QueryLogRingBuffer<Integer>(1).capacity()).isEqualTo(2);
+        assertThat(new QueryLogRingBuffer<Integer>(8).capacity()).isEqualTo(8);
+        assertThat(new QueryLogRingBuffer<Integer>(9).capacity()).isEqualTo(16);
+    }
+
+    @Test
+    void testFullBufferRejectsUntilDrained() {
+        QueryLogRingBuffer<Integer> buffer = new QueryLogRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        List<Integer> sink = new ArrayList<>();
+        assertThat(buffer.drainTo(sink, 1)).isEqualTo(1);
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(buffer.offer(5)).isFalse();
+    }
+
+    @Test
+    void testElementsKeepOrderAcrossWraparound() {
+        QueryLogRingBuffer<Integer> buffer = new QueryLogRingBuffer<>(4);
+        List<Integer> sink = new ArrayList<>();
+        int next = 0;
+        // Ten laps of three elements move head and tail around the four slots many times.
+        for (int lap = 0; lap < 10; lap++) {
+            for (int i = 0; i < 3; i++) {
+                assertThat(buffer.offer(next++)).isTrue();
+            }
+            assertThat(buffer.drainTo(sink, 2)).isEqualTo(2);
+        }
+        buffer.drainTo(sink, Integer.MAX_VALUE);
+
+        assertThat(sink).hasSize(30);
+        for (int i = 0; i < sink.size(); i++) {
+            assertThat(sink.get(i)).isEqualTo(i);
+        }
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void testConcurrentProducersDeliverEveryElementOnce() throws Exception {
+        int producers = 4;
+        int perProducer = 5_000;
+        QueryLogRingBuffer<Integer> buffer = new QueryLogRingBuffer<>(64);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        try {
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                pool.execute(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(base + i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    done.countDown();
+                });
+            }
+            List<Integer> sink = new ArrayList<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (sink.size() < producers * perProducer && System.nanoTime() < deadline) {
+                buffer.drainTo(sink, 32);
+            }
+
+            assertThat(done.await(1, TimeUnit.SECONDS)).isTrue();
+            Set<Integer> distinct = new HashSet<>(sink);
+            assertThat(sink).hasSize(producers * perProducer);
+            assertThat(distinct).hasSize(producers * perProducer);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testQueryLogServiceCountsDroppedEntries() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // The writer never runs during the test, so the buffer only fills.
+        QueryLogService service = new QueryLogService(null, 2, 16, 60_000L, registry);
+
+        service.write("a", 10, 1.0, "SUCCESS");
+        service.write("b", 10, 1.0, "SUCCESS");
+        service.write("c", 10, 1.0, "SUCCESS");
+
+        assertThat(registry.counter("query_log_dropped_total").count()).isEqualTo(1.0);
+        assertThat(registry.get("query_log_pending").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    void testDestroyDrainsPendingEntriesOnWriterThread() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        QueryLogService service = new QueryLogService(null, 16, 16, 60_000L, registry);
+        service.write("a", 10, 1.0, "SUCCESS");
+        service.write("b", 10, 1.0, "SUCCESS");
+
+        service.destroy();
+
+        // Without a database the batch fails, but it has left the buffer.
+        assertThat(registry.get("query_log_pending").gauge().value()).isZero();
+        assertThat(registry.counter("query_log_failed_total").count()).isEqualTo(2.0);
+    }
+}
@@ -0,0 +1,85 @@
+package com.hybrid.query.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetrievalHedgerTest {
+
+    @Test
+    void testHedgeWinsAndCancelsSlowPrimary() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RetrievalHedger hedger = new RetrievalHedger("solr", true, 95.0, 10L, 1.0, registry);
+        AtomicBoolean primaryCancelled = new AtomicBoolean();
+
+        String result = hedger.hedge(attempt -> attempt == RetrievalHedger.PRIMARY
+                ? Mono.delay(Duration.ofSeconds(2)).map(tick -> "primary").doOnCancel(() -> primaryCancelled.set(true))
+                : Mono.just("hedge")
+        ).block(Duration.ofSeconds(1));
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(primaryCancelled).isTrue();
+        assertThat(registry.counter("retrieval_hedge_fired_total", "backend", "solr").count()).isEqualTo(1.0);
+        assertThat(registry.counter("retrieval_hedge_won_total", "backend", "solr").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testNoHedgeBeforeDelay() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RetrievalHedger hedger = new RetrievalHedger("solr", true, 95.0, 500L, 1.0, registry);
+        List<Integer> attempts = new CopyOnWriteArrayList<>();
+
+        String result = hedger.hedge(attempt -> {
+            attempts.add(attempt);
+            return attempt == RetrievalHedger.PRIMARY
+                    ? Mono.delay(Duration.ofMillis(20)).map(tick -> "primary")
+                    : Mono.just("hedge");
+        }).block(Duration.ofSeconds(1));
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(attempts).containsExactly(RetrievalHedger.PRIMARY);
+        assertThat(registry.counter("retrieval_hedge_fired_total", "backend", "solr").count()).isZero();
+        assertThat(registry.get("retrieval_hedge_delay_ms").tag("backend", "solr").gauge().value()).isEqualTo(500.0);
+    }
+
+    @Test
+    void testTokenBudgetCapsHedges() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // No earnings per call: only the initial budget of ten hedges is available.
+        RetrievalHedger hedger = new RetrievalHedger("vector", true, 95.0, 1L, 0.0, registry);
+
+        List<String> results = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            results.add(hedger.hedge(attempt -> attempt == RetrievalHedger.PRIMARY
+                    ? Mono.delay(Duration.ofMillis(100)).map(tick -> "primary")
+                    : Mono.just("hedge")
+            ).block(Duration.ofSeconds(1)));
+        }
+
+        assertThat(results.subList(0, 10)).containsOnly("hedge");
+        assertThat(results.get(10)).isEqualTo("primary");
+        assertThat(registry.counter("retrieval_hedge_fired_total", "backend", "vector").count()).isEqualTo(10.0);
+        assertThat(registry.counter("retrieval_hedge_budget_exhausted_total", "backend", "vector").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testDisabledHedgerRunsPrimaryOnly() {
+        RetrievalHedger hedger = new RetrievalHedger("solr", false, 95.0, 1L, 1.0, null);
+        List<Integer> attempts = new CopyOnWriteArrayList<>();
+
+        String result = hedger.hedge(attempt -> {
+            attempts.add(attempt);
+            return Mono.delay(Duration.ofMillis(50)).map(tick -> "primary");
+        }).block(Duration.ofSeconds(1));
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(attempts).containsExactly(RetrievalHedger.PRIMARY);
+    }
+}
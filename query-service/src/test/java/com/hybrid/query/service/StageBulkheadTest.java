@@ -0,0 +1,154 @@
+package com.hybrid.query.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StageBulkheadTest {
+
+    @Test
+    void testPlatformBulkheadRejectsBeyondPoolAndQueue() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StageBulkhead bulkhead = new StageBulkhead("lexical", 1, 1, registry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> running = bulkhead.submit(() -> {
+                started.countDown();
+                await(release);
+                return "running";
+            });
+            assertThat(started.await(2, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<String> queued = bulkhead.submit(() -> "queued");
+            CompletableFuture<String> rejected = bulkhead.submit(() -> "rejected");
+
+            assertThat(rejected).isCompletedExceptionally();
+            assertThatThrownBy(rejected::join).hasCauseInstanceOf(RejectedExecutionException.class);
+            assertThat(gauge(registry, "query_stage_executor_active_threads")).isEqualTo(1.0);
+            assertThat(gauge(registry, "query_stage_executor_queued_tasks")).isEqualTo(1.0);
+            assertThat(registry.get("query_stage_executor_rejected_total").tag("stage", "lexical").functionCounter().count())
+                    .isEqualTo(1.0);
+
+            release.countDown();
+            assertThat(running.get(2, TimeUnit.SECONDS)).isEqualTo("running");
+            assertThat(queued.get(2, TimeUnit.SECONDS)).isEqualTo("queued");
+        } finally {
+            release.countDown();
+            bulkhead.shutdown();
+        }
+    }
+
+    @Test
+    void testStageThreadsCarryTheStageName() throws Exception {
+        StageBulkhead bulkhead = new StageBulkhead("vector", 1, 1, null);
+        try {
+            String name = bulkhead.submit(() -> Thread.currentThread().getName()).get(2, TimeUnit.SECONDS);
+
+            assertThat(name).startsWith(StageBulkhead.THREAD_NAME_PREFIX + "vector-");
+        } finally {
+            bulkhead.shutdown();
+        }
+    }
+
+    @Test
+    void testCancelInterruptsRunningTask() throws Exception {
+        StageBulkhead bulkhead = new StageBulkhead("vector", 1, 1, null);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> running = bulkhead.submit(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException ex) {
+                    interrupted.countDown();
+                }
+                return "finished";
+            });
+            assertThat(started.await(2, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(running.cancel(true)).isTrue();
+            assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+            // The interrupt must not leak into the next task on the same pooled thread.
+            assertThat(bulkhead.submit(() -> Thread.currentThread().isInterrupted()).get(2, TimeUnit.SECONDS)).isFalse();
+        } finally {
+            bulkhead.shutdown();
+        }
+    }
+
+    @Test
+    void testTaskCancelledWhileQueuedNeverRuns() throws Exception {
+        StageBulkhead bulkhead = new StageBulkhead("lexical", 1, 1, null);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean queuedRan = new AtomicBoolean();
+        try {
+            CompletableFuture<String> running = bulkhead.submit(() -> {
+                started.countDown();
+                await(release);
+                return "running";
+            });
+            assertThat(started.await(2, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<String> queued = bulkhead.submit(() -> {
+                queuedRan.set(true);
+                return "queued";
+            });
+
+            assertThat(queued.cancel(true)).isTrue();
+            release.countDown();
+            assertThat(running.get(2, TimeUnit.SECONDS)).isEqualTo("running");
+            assertThat(bulkhead.submit(() -> "next").get(2, TimeUnit.SECONDS)).isEqualTo("next");
+            assertThat(queuedRan).isFalse();
+        } finally {
+            release.countDown();
+            bulkhead.shutdown();
+        }
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void testVirtualBulkheadRejectsBeyondPermitsAndReleasesThem() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StageBulkhead bulkhead = StageBulkhead.virtual("vector", 1, registry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> running = bulkhead.submit(() -> {
+            started.countDown();
+            await(release);
+            return "running";
+        });
+        assertThat(started.await(2, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> rejected = bulkhead.submit(() -> "rejected");
+
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThat(gauge(registry, "query_stage_executor_active_threads")).isEqualTo(1.0);
+
+        release.countDown();
+        assertThat(running.get(2, TimeUnit.SECONDS)).isEqualTo("running");
+        assertThat(bulkhead.submit(() -> "admitted").get(2, TimeUnit.SECONDS)).isEqualTo("admitted");
+        assertThat(registry.get("virtual_thread_task_ms").tag("stage", "vector").timer().count()).isEqualTo(2L);
+    }
+
+    private static double gauge(SimpleMeterRegistry registry, String name) {
+        return registry.get(name).gauge().value();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,29 +1,46 @@
 package com.hybrid.vector.config;
 
+import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 import javax.sql.DataSource;
 
+/**
+ * Pooled pgvector access. The pool is sized to the number of nearest-neighbour searches that can
+ * run at once, which matches query-service's vector stage pool, and is kept full so a search never
+ * pays for a connection handshake. The search statement is prepared server-side from its first use
+ * and cached per connection by the driver. Spring Boot publishes the pool's {@code hikaricp_*}
+ * metrics (acquire time, active, pending) under the pool name.
+ */
 @Configuration
 public class VectorDatabaseConfig {
 
-    @Bean
+    @Bean(destroyMethod = "close")
     public DataSource dataSource(
             @Value("${postgres.host}") String host,
             @Value("${postgres.port}") int port,
             @Value("${postgres.db}") String db,
             @Value("${postgres.user}") String user,
-            @Value("${postgres.password}") String password
+            @Value("${postgres.password}") String password,
+            @Value("${postgres.pool.max-size:16}") int maxSize,
+            @Value("${postgres.pool.connection-timeout-ms:1000}") long connectionTimeoutMs,
+            @Value("${postgres.pool.prepare-threshold:1}") int prepareThreshold,
+            @Value("${postgres.pool.statement-cache-size:256}") int statementCacheSize
     ) {
-        DriverManagerDataSource ds = new DriverManagerDataSource();
+        HikariDataSource ds = new HikariDataSource();
+        ds.setPoolName("vector-postgres");
         ds.setDriverClassName("org.postgresql.Driver");
-        ds.setUrl("jdbc:postgresql://" + host + ":" + port + "/" + db);
+        ds.setJdbcUrl("jdbc:postgresql://" + host + ":" + port + "/" + db);
         ds.setUsername(user);
         ds.setPassword(password);
+        ds.setMaximumPoolSize(Math.max(1, maxSize));
+        ds.setMinimumIdle(Math.max(1, maxSize));
+        ds.setConnectionTimeout(Math.max(250L, connectionTimeoutMs));
+        ds.addDataSourceProperty("prepareThreshold", prepareThreshold);
+        ds.addDataSourceProperty("preparedStatementCacheQueries", statementCacheSize);
         return ds;
     }
 
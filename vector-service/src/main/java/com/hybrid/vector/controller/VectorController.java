@@ -1,6 +1,7 @@
 package com.hybrid.vector.controller;
 
 import com.hybrid.vector.model.VectorResult;
+import com.hybrid.vector.service.SearchDeadline;
 import com.hybrid.vector.service.VectorSearchService;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,9 +19,14 @@ public class VectorController {
     @GetMapping("/search")
     public List<VectorResult> search(
             @RequestParam("query") String query,
-            @RequestParam(value = "topK", required = false) Integer topK
+            @RequestParam(value = "topK", required = false) Integer topK,
+            @RequestHeader(value = "X-Request-Deadline-Ms", required = false) Long deadlineMs
     ) {
         int resolvedTopK = (topK == null || topK <= 0) ? 10 : topK;
-        return vectorSearchService.search(query, resolvedTopK);
+        SearchDeadline deadline = vectorSearchService.newDeadline();
+        if (deadlineMs != null && deadlineMs < deadline.remainingMillis()) {
+            deadline = SearchDeadline.after(deadlineMs);
+        }
+        return vectorSearchService.search(query, resolvedTopK, deadline);
     }
 }
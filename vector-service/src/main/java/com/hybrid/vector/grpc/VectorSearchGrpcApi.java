@@ -1,10 +1,15 @@
 package com.hybrid.vector.grpc;
 
 import com.hybrid.vector.model.VectorResult;
+import com.hybrid.vector.service.SearchDeadline;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class VectorSearchGrpcApi extends VectorSearchServiceGrpc.VectorSearchServiceImplBase {
@@ -18,7 +23,22 @@ public class VectorSearchGrpcApi extends VectorSearchServiceGrpc.VectorSearchSer
     @Override
     public void search(VectorSearchRequest request, StreamObserver<VectorSearchResponse> responseObserver) {
         int topK = request.getTopK() > 0 ? request.getTopK() : 10;
-        List<VectorResult> results = vectorSearchService.search(request.getQuery(), topK);
+        SearchDeadline deadline = deadlineFor(Context.current());
+        if (deadline.isExpired()) {
+            responseObserver.onError(Status.DEADLINE_EXCEEDED
+                    .withDescription("deadline passed before vector search started")
+                    .asRuntimeException());
+            return;
+        }
+        // A client that times out or cancels the call cancels this context, and with it the database statement.
+        Context.CancellationListener onCancel = context -> deadline.cancel();
+        Context.current().addListener(onCancel, Runnable::run);
+        List<VectorResult> results;
+        try {
+            results = vectorSearchService.search(request.getQuery(), topK, deadline);
+        } finally {
+            Context.current().removeListener(onCancel);
+        }
 
         VectorSearchResponse.Builder responseBuilder = VectorSearchResponse.newBuilder();
         for (VectorResult result : results) {
@@ -35,6 +55,16 @@ public class VectorSearchGrpcApi extends VectorSearchServiceGrpc.VectorSearchSer
         responseObserver.onCompleted();
     }
 
+    private SearchDeadline deadlineFor(Context context) {
+        SearchDeadline fallback = vectorSearchService.newDeadline();
+        Deadline callDeadline = context.getDeadline();
+        if (callDeadline == null) {
+            return fallback;
+        }
+        long callRemainingMs = callDeadline.timeRemaining(TimeUnit.MILLISECONDS);
+        return callRemainingMs < fallback.remainingMillis() ? SearchDeadline.after(callRemainingMs) : fallback;
+    }
+
     private static String safe(String value) {
         return value == null ? "" : value;
     }
@@ -0,0 +1,73 @@
+package com.hybrid.vector.service;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline and cancellation handle for one vector search. The search checks it between the
+ * embedding and database steps, and the step currently running (the embedding request or the
+ * nearest-neighbour statement) is registered here so that {@link #cancel()} (caller gone, or
+ * deadline reached) aborts it.
+ */
+public final class SearchDeadline {
+
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+    private Runnable running;
+
+    private SearchDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static SearchDeadline after(long timeoutMs) {
+        return new SearchDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0L, timeoutMs)));
+    }
+
+    public boolean isExpired() {
+        return cancelled || System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    public long remainingMillis() {
+        return Math.max(0L, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Marks the search as abandoned and cancels the step currently running for it, if any.
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        cancelRunning();
+    }
+
+    void attach(Statement statement) {
+        attach(() -> {
+            try {
+                statement.cancel();
+            } catch (SQLException ignored) {
+                // The statement already finished or the connection is gone; nothing left to stop.
+            }
+        });
+    }
+
+    /**
+     * Registers how to abort the step that is about to run; it runs at once if the search was
+     * already cancelled.
+     */
+    synchronized void attach(Runnable cancelStep) {
+        running = cancelStep;
+        if (cancelled) {
+            cancelRunning();
+        }
+    }
+
+    synchronized void detach() {
+        running = null;
+    }
+
+    private void cancelRunning() {
+        if (running != null) {
+            running.run();
+        }
+    }
+}
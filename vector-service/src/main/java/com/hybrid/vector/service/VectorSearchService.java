@@ -2,49 +2,78 @@ package com.hybrid.vector.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
 import com.hybrid.vector.model.VectorResult;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.PreparedStatement;
+import java.text.Normalizer;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
-public class VectorSearchService {
+public class VectorSearchService implements DisposableBean {
 
     private static final Logger log = LoggerFactory.getLogger(VectorSearchService.class);
     private static final int DEFAULT_TOP_K = 10;
+    private static final long DEFAULT_MAX_SEARCH_DURATION_MS = 5_000L;
+    private static final long DEFAULT_EMBEDDING_CACHE_MAX_BYTES = 64L << 20;
+    private static final long DEFAULT_OLLAMA_CONNECT_TIMEOUT_MS = 1_000L;
+    private static final String EMBEDDING_CACHE_NAME = "vector_embedding";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+", Pattern.UNICODE_CHARACTER_CLASS);
+    private static final String NEAREST_NEIGHBORS_SQL = """
+            SELECT document_id, COALESCE(title, '') AS title,
+                   (1 - (embedding <=> CAST(? AS vector))) AS similarity_score
+            FROM vector_metadata
+            ORDER BY embedding <=> CAST(? AS vector)
+            LIMIT ?
+            """;
 
     private JdbcTemplate jdbcTemplate;
-    private RestTemplate restTemplate;
+    private HttpClient httpClient;
     private ObjectMapper objectMapper;
     private String ollamaBaseUrl;
     private String embeddingModel;
     private MeterRegistry meterRegistry;
     private boolean embeddingCacheEnabled;
-    private long embeddingCacheTtlMillis;
-    private int embeddingCacheMaxEntries;
-    private final ConcurrentHashMap<String, CachedEmbedding> embeddingCache;
+    private long maxSearchDurationMs;
+    private final Cache<String, List<Double>> embeddingCache;
+    private final ScheduledExecutorService statementReaper;
 
     public VectorSearchService() {
         this.jdbcTemplate = null;
-        this.restTemplate = new RestTemplate();
+        this.httpClient = newHttpClient(DEFAULT_OLLAMA_CONNECT_TIMEOUT_MS);
         this.objectMapper = new ObjectMapper();
         this.ollamaBaseUrl = "http://ollama:11434";
         this.embeddingModel = "embeddinggemma";
         this.meterRegistry = null;
         this.embeddingCacheEnabled = true;
-        this.embeddingCacheTtlMillis = 10 * 60 * 1000L;
-        this.embeddingCacheMaxEntries = 5_000;
-        this.embeddingCache = new ConcurrentHashMap<>();
+        this.maxSearchDurationMs = DEFAULT_MAX_SEARCH_DURATION_MS;
+        this.embeddingCache = newEmbeddingCache(600L, DEFAULT_EMBEDDING_CACHE_MAX_BYTES);
+        this.statementReaper = newStatementReaper();
     }
 
     @Autowired
@@ -55,22 +84,47 @@ public class VectorSearchService {
             @Value("${vector.embedding.model}") String embeddingModel,
             @Value("${vector.embedding-cache.enabled:true}") boolean embeddingCacheEnabled,
             @Value("${vector.embedding-cache.ttl-seconds:600}") long embeddingCacheTtlSeconds,
-            @Value("${vector.embedding-cache.max-entries:5000}") int embeddingCacheMaxEntries,
+            @Value("${vector.embedding-cache.max-bytes:67108864}") long embeddingCacheMaxBytes,
+            @Value("${vector.search.max-duration-ms:5000}") long maxSearchDurationMs,
+            @Value("${vector.ollama.connect-timeout-ms:1000}") long ollamaConnectTimeoutMs,
             MeterRegistry meterRegistry
     ) {
         this.jdbcTemplate = jdbcTemplate;
-        this.restTemplate = new RestTemplate();
+        this.httpClient = newHttpClient(ollamaConnectTimeoutMs);
         this.objectMapper = objectMapper;
         this.ollamaBaseUrl = ollamaBaseUrl;
         this.embeddingModel = embeddingModel;
         this.embeddingCacheEnabled = embeddingCacheEnabled;
-        this.embeddingCacheTtlMillis = Math.max(1L, embeddingCacheTtlSeconds) * 1000L;
-        this.embeddingCacheMaxEntries = Math.max(100, embeddingCacheMaxEntries);
-        this.embeddingCache = new ConcurrentHashMap<>();
+        this.maxSearchDurationMs = Math.max(1L, maxSearchDurationMs);
+        this.embeddingCache = newEmbeddingCache(embeddingCacheTtlSeconds, embeddingCacheMaxBytes);
+        this.statementReaper = newStatementReaper();
         this.meterRegistry = meterRegistry;
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, embeddingCache, EMBEDDING_CACHE_NAME);
+            Gauge.builder("cache_weight_bytes", embeddingCache, VectorSearchService::weightedSize)
+                    .tag("cache", EMBEDDING_CACHE_NAME)
+                    .register(meterRegistry);
+        }
     }
 
     public List<VectorResult> search(String query, int topK) {
+        return search(query, topK, newDeadline());
+    }
+
+    /**
+     * Deadline used when the caller supplies none: REST callers that time out simply close the
+     * connection, which the servlet container does not surface, so work is bounded here instead.
+     */
+    public SearchDeadline newDeadline() {
+        return SearchDeadline.after(maxSearchDurationMs);
+    }
+
+    /**
+     * Runs the search until {@code deadline} expires or is cancelled. Expiry skips the remaining
+     * steps and aborts the one in progress: the embedding request to Ollama, or the
+     * nearest-neighbour query in the database.
+     */
+    public List<VectorResult> search(String query, int topK, SearchDeadline deadline) {
         int resolvedTopK = topK <= 0 ? DEFAULT_TOP_K : topK;
         if (query == null || query.isBlank()) {
             return List.of();
@@ -85,8 +139,15 @@ public class VectorSearchService {
         }
 
         try {
+            if (deadline.isExpired()) {
+                // The caller has already given up: neither the embedding nor the database query is worth running.
+                if (meterRegistry != null) {
+                    meterRegistry.counter("vector_query_count_total", "status", "deadline_exceeded").increment();
+                }
+                return List.of();
+            }
             long embeddingStart = System.nanoTime();
-            List<Double> embedding = fetchEmbeddingCached(query);
+            List<Double> embedding = fetchEmbeddingCached(query.trim(), deadline);
             recordTimer("vector_embedding_latency_ms", embeddingStart);
             if (embedding.isEmpty()) {
                 if (meterRegistry != null) {
@@ -94,8 +155,14 @@ public class VectorSearchService {
                 }
                 return List.of();
             }
+            if (deadline.isExpired()) {
+                if (meterRegistry != null) {
+                    meterRegistry.counter("vector_query_count_total", "status", "cancelled").increment();
+                }
+                return List.of();
+            }
             long dbStart = System.nanoTime();
-            List<VectorResult> results = queryNearestNeighbors(embedding, resolvedTopK);
+            List<VectorResult> results = queryNearestNeighbors(embedding, resolvedTopK, deadline);
             recordTimer("vector_db_latency_ms", dbStart);
             if (meterRegistry != null) {
                 meterRegistry.counter("vector_query_count_total", "status", "success").increment();
@@ -103,50 +170,75 @@ public class VectorSearchService {
             return results;
         } catch (Exception ex) {
             if (meterRegistry != null) {
-                meterRegistry.counter("vector_query_count_total", "status", "error").increment();
+                String status = deadline.isExpired() ? "cancelled" : "error";
+                meterRegistry.counter("vector_query_count_total", "status", status).increment();
             }
             log.warn("Vector retrieval failed, returning empty result set: {}", ex.getMessage());
             return List.of();
         }
     }
 
-    private List<Double> fetchEmbeddingCached(String query) throws Exception {
+    /**
+     * Embeds {@code query} as given; only the cache key is canonicalized, so near-duplicate queries
+     * share one embedding while the model still sees the caller's text.
+     */
+    private List<Double> fetchEmbeddingCached(String query, SearchDeadline deadline) throws Exception {
         if (!embeddingCacheEnabled) {
             incrementCounter("vector_embedding_cache_miss_total");
-            return fetchEmbedding(query);
+            return fetchEmbedding(query, deadline);
         }
 
-        long now = System.currentTimeMillis();
-        CachedEmbedding cached = embeddingCache.get(query);
-        if (cached != null && cached.expiresAtMillis > now) {
+        String cacheKey = canonicalQuery(query);
+        List<Double> cached = embeddingCache.getIfPresent(cacheKey);
+        if (cached != null) {
             incrementCounter("vector_embedding_cache_hit_total");
-            return cached.embedding;
+            return cached;
         }
 
         incrementCounter("vector_embedding_cache_miss_total");
-        List<Double> embedding = fetchEmbedding(query);
+        List<Double> embedding = fetchEmbedding(query, deadline);
         if (embedding.isEmpty()) {
             return embedding;
         }
 
-        if (embeddingCache.size() >= embeddingCacheMaxEntries) {
-            // Keep eviction simple and bounded for local deployment.
-            embeddingCache.clear();
-        }
-        embeddingCache.put(query, new CachedEmbedding(List.copyOf(embedding), now + embeddingCacheTtlMillis));
+        embeddingCache.put(cacheKey, List.copyOf(embedding));
         return embedding;
     }
 
-    private List<Double> fetchEmbedding(String query) throws Exception {
+    /**
+     * Calls Ollama within the time left on {@code deadline}. The request carries that time as its
+     * timeout and is registered with the deadline, so a cancelled search aborts the exchange
+     * instead of waiting for the model.
+     */
+    private List<Double> fetchEmbedding(String query, SearchDeadline deadline) throws Exception {
         Map<String, Object> payload = new HashMap<>();
         payload.put("model", embeddingModel);
         payload.put("input", query);
 
-        String response = restTemplate.postForObject(
-                ollamaBaseUrl + "/api/embed",
-                payload,
-                String.class
-        );
+        long remainingMs = deadline.remainingMillis();
+        if (remainingMs <= 0L) {
+            return List.of();
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(ollamaBaseUrl + "/api/embed"))
+                .timeout(Duration.ofMillis(remainingMs))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(payload)))
+                .build();
+        CompletableFuture<HttpResponse<String>> exchange = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> httpResponse;
+        deadline.attach(() -> exchange.cancel(true));
+        try {
+            httpResponse = exchange.get(remainingMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            exchange.cancel(true);
+            throw ex;
+        } finally {
+            deadline.detach();
+        }
+        if (httpResponse.statusCode() / 100 != 2) {
+            throw new IllegalStateException("embedding request failed with HTTP " + httpResponse.statusCode());
+        }
+        String response = httpResponse.body();
 
         if (response == null || response.isBlank()) {
             return List.of();
@@ -174,27 +266,30 @@ public class VectorSearchService {
         return vector;
     }
 
-    private List<VectorResult> queryNearestNeighbors(List<Double> embedding, int topK) {
+    private List<VectorResult> queryNearestNeighbors(List<Double> embedding, int topK, SearchDeadline deadline) {
         String vectorLiteral = toVectorLiteral(embedding);
-        String sql = """
-                SELECT document_id, COALESCE(title, '') AS title,
-                       (1 - (embedding <=> CAST(? AS vector))) AS similarity_score
-                FROM vector_metadata
-                ORDER BY embedding <=> CAST(? AS vector)
-                LIMIT ?
-                """;
-
-        return jdbcTemplate.query(
-                sql,
-                (rs, rowNum) -> new VectorResult(
-                        rs.getString("document_id"),
-                        rs.getDouble("similarity_score"),
-                        rs.getString("title")
-                ),
-                vectorLiteral,
-                vectorLiteral,
-                topK
-        );
+        // The statement is registered with the deadline, which cancels it when the deadline passes.
+        ScheduledFuture<?> reaper = statementReaper.schedule(deadline::cancel, deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+        try {
+            return jdbcTemplate.query(
+                    connection -> {
+                        PreparedStatement statement = connection.prepareStatement(NEAREST_NEIGHBORS_SQL);
+                        statement.setString(1, vectorLiteral);
+                        statement.setString(2, vectorLiteral);
+                        statement.setInt(3, topK);
+                        deadline.attach(statement);
+                        return statement;
+                    },
+                    (rs, rowNum) -> new VectorResult(
+                            rs.getString("document_id"),
+                            rs.getDouble("similarity_score"),
+                            rs.getString("title")
+                    )
+            );
+        } finally {
+            deadline.detach();
+            reaper.cancel(false);
+        }
     }
 
     private static String toVectorLiteral(List<Double> embedding) {
@@ -203,6 +298,54 @@ public class VectorSearchService {
                 .collect(Collectors.joining(",", "[", "]"));
     }
 
+    /**
+     * NFKC, lower-cased, whitespace-collapsed form of the query, used as the embedding cache key.
+     */
+    private static String canonicalQuery(String query) {
+        String folded = Normalizer.normalize(query, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(folded).replaceAll(" ").trim();
+    }
+
+    /**
+     * Size-bounded W-TinyLFU cache: rarely repeated queries are not admitted over frequently
+     * repeated ones, and expired embeddings are dropped in the background.
+     */
+    private static Cache<String, List<Double>> newEmbeddingCache(long ttlSeconds, long maxBytes) {
+        return Caffeine.newBuilder()
+                .maximumWeight(Math.max(1L << 20, maxBytes))
+                // A boxed Double plus its list slot is about 20 bytes.
+                .weigher((String key, List<Double> embedding) -> 64 + key.length() + 20 * embedding.size())
+                .expireAfterWrite(Duration.ofSeconds(Math.max(1L, ttlSeconds)))
+                .scheduler(Scheduler.systemScheduler())
+                .recordStats()
+                .build();
+    }
+
+    private static double weightedSize(Cache<String, List<Double>> cache) {
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    private static HttpClient newHttpClient(long connectTimeoutMs) {
+        return HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(Math.max(1L, connectTimeoutMs)))
+                .build();
+    }
+
+    private static ScheduledExecutorService newStatementReaper() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "vector-statement-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        statementReaper.shutdownNow();
+    }
+
     private void recordTimer(String metricName, long startNanos) {
         if (meterRegistry == null) {
             return;
@@ -223,14 +366,4 @@ public class VectorSearchService {
         results.add(new VectorResult("doc-002", 0.89, "Mock Doc 2"));
         return results.subList(0, Math.min(topK, results.size()));
     }
-
-    private static class CachedEmbedding {
-        private final List<Double> embedding;
-        private final long expiresAtMillis;
-
-        private CachedEmbedding(List<Double> embedding, long expiresAtMillis) {
-            this.embedding = embedding;
-            this.expiresAtMillis = expiresAtMillis;
-        }
-    }
 }
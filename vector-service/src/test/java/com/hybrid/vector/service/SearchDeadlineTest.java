@@ -0,0 +1,92 @@
+package com.hybrid.vector.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class SearchDeadlineTest {
+
+    @Test
+    void cancelStopsAttachedStatement() throws SQLException {
+        SearchDeadline deadline = SearchDeadline.after(5_000L);
+        Statement statement = mock(Statement.class);
+
+        deadline.attach(statement);
+        deadline.cancel();
+
+        verify(statement).cancel();
+        assertTrue(deadline.isExpired());
+    }
+
+    @Test
+    void attachAfterCancelStopsStatementImmediately() throws SQLException {
+        SearchDeadline deadline = SearchDeadline.after(5_000L);
+        Statement statement = mock(Statement.class);
+
+        deadline.cancel();
+        deadline.attach(statement);
+
+        verify(statement).cancel();
+    }
+
+    @Test
+    void detachedStatementIsNotCancelled() throws SQLException {
+        SearchDeadline deadline = SearchDeadline.after(5_000L);
+        Statement statement = mock(Statement.class);
+
+        deadline.attach(statement);
+        deadline.detach();
+        deadline.cancel();
+
+        verify(statement, never()).cancel();
+    }
+
+    @Test
+    void cancelIgnoresStatementThatAlreadyFinished() throws SQLException {
+        SearchDeadline deadline = SearchDeadline.after(5_000L);
+        Statement statement = mock(Statement.class);
+        doThrow(new SQLException("statement closed")).when(statement).cancel();
+
+        deadline.attach(statement);
+
+        assertDoesNotThrow(deadline::cancel);
+    }
+
+    @Test
+    void cancelAbortsAttachedStepOnce() {
+        SearchDeadline deadline = SearchDeadline.after(5_000L);
+        AtomicInteger aborted = new AtomicInteger();
+
+        deadline.attach(aborted::incrementAndGet);
+        deadline.cancel();
+        deadline.detach();
+        deadline.cancel();
+
+        assertEquals(1, aborted.get());
+    }
+
+    @Test
+    void deadlineExpiresWithTime() throws InterruptedException {
+        SearchDeadline open = SearchDeadline.after(5_000L);
+        SearchDeadline elapsed = SearchDeadline.after(0L);
+        SearchDeadline shortDeadline = SearchDeadline.after(20L);
+        Thread.sleep(40L);
+
+        assertFalse(open.isExpired());
+        assertTrue(open.remainingMillis() > 0L);
+        assertTrue(elapsed.isExpired());
+        assertEquals(0L, elapsed.remainingMillis());
+        assertTrue(shortDeadline.isExpired());
+    }
+}